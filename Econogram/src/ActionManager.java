@@ -61,6 +61,7 @@ public class ActionManager {
 			currentActionPointer--;
 			Action obj = actionList.get(currentActionPointer);
 			boolean couldUndo = obj.undo();
+			econogram.canvas.invalidateRenderCache();		//not every undo/redo goes through DrawObject.update()
 			if (!couldUndo) {
 				currentActionPointer++;
 			}
@@ -99,6 +100,7 @@ public class ActionManager {
 		if (currentActionPointer < actionList.size()) {
 			Action obj = actionList.get(currentActionPointer++);
 			boolean worked = obj.redo();
+			econogram.canvas.invalidateRenderCache();		//not every undo/redo goes through DrawObject.update()
 			if (!worked) {
 				currentActionPointer--;
 			}
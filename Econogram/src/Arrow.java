@@ -78,7 +78,7 @@ public class Arrow extends DrawObject {
 	}
 
 	@Override
-	public void addDrawPrimativesPreChild(Coordinate base, List<DrawPrimative> primatives) {
+	public void addDrawPrimativesPreChild(RenderContext context, Coordinate base, List<DrawPrimative> primatives) {
 		arrowhead.setCanvasParent(getCanvasParent());
 		arrowhead.hide = !showFrontArrow;
 		backArrowhead.setCanvasParent(getCanvasParent());
@@ -94,7 +94,7 @@ public class Arrow extends DrawObject {
 	}
 
 	@Override
-	public void addDrawPrimativesPostChild(Coordinate base, List<DrawPrimative> primatives) {
+	public void addDrawPrimativesPostChild(RenderContext context, Coordinate base, List<DrawPrimative> primatives) {
 		
 	}
 
@@ -88,6 +88,7 @@ public class Arrowhead extends DrawObject {
 	
 	public void setAngle(double angle) {
 		this.angle = angle;
+		markRenderDirty();
 	}
 	
 	@Override
@@ -238,7 +239,7 @@ public class Arrowhead extends DrawObject {
 	}
 	
 	@Override
-	public void addDrawPrimativesPreChild(Coordinate base, List<DrawPrimative> primatives) {
+	public void addDrawPrimativesPreChild(RenderContext context, Coordinate base, List<DrawPrimative> primatives) {
 		if (hide) {
 			return;
 		}
@@ -262,7 +263,7 @@ public class Arrowhead extends DrawObject {
 	}
 
 	@Override
-	public void addDrawPrimativesPostChild(Coordinate base, List<DrawPrimative> primatives) {
+	public void addDrawPrimativesPostChild(RenderContext context, Coordinate base, List<DrawPrimative> primatives) {
 		
 	}
 
@@ -84,7 +84,7 @@ public class Axis extends DrawObject {
 	}
 
 	@Override
-	public void addDrawPrimativesPreChild(Coordinate base, List<DrawPrimative> primatives) {
+	public void addDrawPrimativesPreChild(RenderContext context, Coordinate base, List<DrawPrimative> primatives) {
 		//canvas.addObject(thisAxis) happens AFTER the constructor is called, so the children never get a canvasParent
 		hzAxisLabel.setCanvasParent(canvasParent);
 		vtAxisLabel.setCanvasParent(canvasParent);
@@ -93,7 +93,7 @@ public class Axis extends DrawObject {
 	}
 
 	@Override
-	public void addDrawPrimativesPostChild(Coordinate base, List<DrawPrimative> primatives) {
+	public void addDrawPrimativesPostChild(RenderContext context, Coordinate base, List<DrawPrimative> primatives) {
 		Coordinate topLeft = new Coordinate(base.x, base.y);
 		Coordinate bottomLeft = new Coordinate(base.x, base.y + axisSize);
 		Coordinate bottomRight = new Coordinate(base.x + axisSize, base.y + axisSize);
@@ -102,10 +102,10 @@ public class Axis extends DrawObject {
 		primatives.add(new PrimativeLine(this, bottomLeft, bottomRight));
 		
 		Coordinate zeroPosition = new Coordinate(base.x - 18, base.y + axisSize + 18);
-		primatives.add(new PrimativeText(this, "0", zeroPosition));
+		primatives.add(new PrimativeText(this, "0", zeroPosition, context));
 		
-		if (getCanvasParent().isShowingPrimaryAxisHint() && this == getCanvasParent().econogram.primaryAxis) {
-			PrimativeText phint = new PrimativeText(this, "PRIMARY", new Coordinate(zeroPosition, new Coordinate(0, 30.0)));
+		if (context.showingPrimaryAxisHint && isPrimaryAxis()) {
+			PrimativeText phint = new PrimativeText(this, "PRIMARY", new Coordinate(zeroPosition, new Coordinate(0, 30.0)), context);
 			phint.colour = 0x00AA00;
 			primatives.add(phint);
 		}
@@ -123,9 +123,14 @@ public class Axis extends DrawObject {
 		return "Axis";
 	}
 
+	//documents that aren't open in a window (e.g. copies being exported) don't have a primary axis
+	boolean isPrimaryAxis() {
+		return getCanvasParent().econogram != null && this == getCanvasParent().econogram.primaryAxis;
+	}
+	
 	@Override
 	public String getSerialisation() {
-		return String.format("%d,%d,%d,%d,%d,%d", axisSize, vtAxisLabel.uniqueID, hzAxisLabel.uniqueID, hzArrowhead.uniqueID, vtArrowhead.uniqueID, this == getCanvasParent().econogram.primaryAxis ? 1 : 0);
+		return String.format("%d,%d,%d,%d,%d,%d", axisSize, vtAxisLabel.uniqueID, hzAxisLabel.uniqueID, hzArrowhead.uniqueID, vtArrowhead.uniqueID, isPrimaryAxis() ? 1 : 0);
 	}
 	
 	@Override
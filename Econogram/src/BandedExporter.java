@@ -0,0 +1,139 @@
+import java.awt.*;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+//draws the document into an image for exporting. it works from a DocumentSnapshot rather than the real document, which means
+//the image can be split into horizontal bands and drawn on as many threads as there are cores
+public class BandedExporter {
+	static final double DEFAULT_ZOOM = 4.0;
+
+	//document units are points, so this is the resolution that keeps the diagram the size it is on paper
+	static final double DOCUMENT_UNITS_PER_INCH = 72.0;
+
+	//small enough that there are plenty of bands to share out between the threads, even for a small diagram. very wide
+	//images get shorter bands, so that the memory used while streaming only depends on how many are being drawn at once
+	static final int BAND_HEIGHT = 256;
+	static final long MAX_BAND_BYTES = 8L * 1024 * 1024;
+
+	List<DrawPrimative> primatives;
+	RenderContext context;
+	int width;
+	int height;
+
+	//this reads the document, so it has to be made on the event dispatch thread. everything after that can be done on any thread
+	public BandedExporter(Canvas canvas, double zoom) {
+		this(new DocumentSnapshot(canvas, zoom));
+	}
+
+	public BandedExporter(DocumentSnapshot snapshot) {
+		primatives = snapshot.getPrimatives();
+		context = snapshot.getRenderContext();
+
+		width = (int) (snapshot.getUsedWidth() * context.zoom);
+		height = (int) (snapshot.getUsedHeight() * context.zoom);
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	//the zoom that makes the export the given number of pixels wide (the extra half stops it rounding down to one short)
+	static double zoomForWidth(Canvas canvas, int pixels) {
+		return (pixels + 0.5) / canvas.getUsedWidth();
+	}
+
+	int getBandHeight() {
+		return (int) Math.max(1, Math.min(BAND_HEIGHT, MAX_BAND_BYTES / (3L * width)));
+	}
+
+	//draws rows top to top + rows - 1 of the image. the graphics are moved up rather than the document being panned down, so
+	//everything lands on exactly the same pixels as it would if the whole image was drawn in one go
+	public BufferedImage renderBand(int top, int rows) {
+		BufferedImage band = new BufferedImage(width, rows, BufferedImage.TYPE_3BYTE_BGR);
+
+		Graphics2D g = band.createGraphics();
+		g.setColor(Color.WHITE);
+		g.fillRect(0, 0, width, rows);
+		g.translate(0, -top);
+		RenderStateCache.applyHints(g);
+
+		Rectangle clip = new Rectangle(0, top, width, rows);
+		g.setClip(clip);
+
+		//each band has its own context to draw with, so they can all be drawn at once
+		RenderContext bandContext = context.withGraphics(g);
+		Rectangle2D.Double visible = Canvas.getVisibleDocumentRect(clip, bandContext);
+		for (DrawPrimative primative : primatives) {
+			if (Canvas.overlaps(primative.getBounds(), visible)) {
+				primative.draw(bandContext);
+			}
+		}
+
+		g.dispose();
+		return band;
+	}
+
+	public void writePng(String filename, double dpi) throws IOException, InterruptedException {
+		OutputStream out = new BufferedOutputStream(new FileOutputStream(filename));
+		try {
+			writePng(out, dpi, Runtime.getRuntime().availableProcessors());
+		} finally {
+			out.close();
+		}
+	}
+
+	//draws the bands on the threads as usual, but writes each one out (in order) as soon as it's ready instead of putting
+	//them all together first. only a couple of bands per thread are ever waiting to be written, however big the image is
+	public void writePng(OutputStream out, double dpi, int threads) throws IOException, InterruptedException {
+		StreamingPngWriter png = new StreamingPngWriter(out, width, height, dpi);
+		ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+		int bandHeight = getBandHeight();
+		int window = 2 * Math.max(1, threads);
+
+		try {
+			Deque<Future<BufferedImage>> bands = new ArrayDeque<Future<BufferedImage>>();
+			int nextTop = 0;
+
+			while (nextTop < height || !bands.isEmpty()) {
+				while (nextTop < height && bands.size() < window) {
+					int bandTop = nextTop;
+					int rows = Math.min(bandHeight, height - nextTop);
+
+					bands.add(pool.submit(new Callable<BufferedImage>() {
+						@Override
+						public BufferedImage call() {
+							return renderBand(bandTop, rows);
+						}
+					}));
+					nextTop += rows;
+				}
+
+				png.writeRows(bands.remove().get());
+			}
+
+			png.finish();
+
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,267 @@
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+//exports .edi files from the command line, without ever opening a window. each file is loaded, drawn and saved by one worker
+//thread from start to finish, and as many files are done at once as there are workers. e.g.
+//
+//		java BatchConverter -format pdf -threads 4 -out exported diagrams/
+//
+public class BatchConverter {
+	static final String USAGE = 
+			"usage: java BatchConverter [-format png|svg|pdf] [-threads n] [-zoom z] [-dpi d] [-out directory] file.edi|directory ...\n" +
+			"  -format   what to export to (png by default)\n" +
+			"  -threads  how many files to work on at once (one per core by default)\n" +
+			"  -zoom     pixels per document unit for PNGs (4 by default)\n" +
+			"  -dpi      the resolution written into PNGs (72 per unit of zoom by default)\n" +
+			"  -out      where the exported files go (next to each .edi file by default)";
+
+	String format = "png";
+	int threads = Runtime.getRuntime().availableProcessors();
+	double zoom = BandedExporter.DEFAULT_ZOOM;
+	double dpi = -1;
+	File outputDirectory = null;
+	List<File> files = new ArrayList<File>();
+
+	//how one file went
+	static class Result {
+		File file;
+		File output;
+		long nanoseconds;
+		long bytesRead;
+		long bytesWritten;
+		Throwable failure;
+	}
+
+	//returns false (after saying why) if the arguments don't make sense
+	boolean parseArguments(String[] args) {
+		try {
+			for (int i = 0; i < args.length; ++i) {
+				String arg = args[i];
+
+				if (arg.equals("-format")) {
+					format = args[++i].toLowerCase(Locale.ROOT);
+					if (!format.equals("png") && !format.equals("svg") && !format.equals("pdf")) {
+						System.err.printf("Unknown format '%s'\n", format);
+						return false;
+					}
+
+				} else if (arg.equals("-threads")) {
+					threads = Math.max(1, Integer.parseInt(args[++i]));
+
+				} else if (arg.equals("-zoom")) {
+					zoom = Double.parseDouble(args[++i]);
+
+				} else if (arg.equals("-dpi")) {
+					dpi = Double.parseDouble(args[++i]);
+
+				} else if (arg.equals("-out")) {
+					outputDirectory = new File(args[++i]);
+
+				} else if (arg.startsWith("-")) {
+					System.err.printf("Unknown option '%s'\n", arg);
+					return false;
+
+				} else {
+					addInput(new File(arg));
+				}
+			}
+
+		} catch (ArrayIndexOutOfBoundsException e) {
+			System.err.printf("%s needs a value\n", args[args.length - 1]);
+			return false;
+
+		} catch (NumberFormatException e) {
+			System.err.printf("Not a number: %s\n", e.getMessage());
+			return false;
+		}
+
+		if (files.isEmpty()) {
+			System.err.println("No .edi files to convert");
+			return false;
+		}
+
+		if (dpi < 0) {
+			dpi = zoom * BandedExporter.DOCUMENT_UNITS_PER_INCH;
+		}
+
+		return true;
+	}
+
+	//a directory means every .edi file directly inside it
+	void addInput(File input) {
+		if (!input.isDirectory()) {
+			files.add(input);
+			return;
+		}
+
+		File[] contents = input.listFiles();
+		if (contents == null) {
+			return;
+		}
+
+		Arrays.sort(contents);
+		for (File file : contents) {
+			if (file.isFile() && file.getName().toLowerCase(Locale.ROOT).endsWith(".edi")) {
+				files.add(file);
+			}
+		}
+	}
+
+	File outputFor(File input) {
+		String name = input.getName();
+		if (name.toLowerCase(Locale.ROOT).endsWith(".edi")) {
+			name = name.substring(0, name.length() - 4);
+		}
+		name += "." + format;
+
+		File directory = outputDirectory != null ? outputDirectory : input.getAbsoluteFile().getParentFile();
+		return new File(directory, name);
+	}
+
+	Result convert(File input) {
+		Result result = new Result();
+		result.file = input;
+		result.output = outputFor(input);
+
+		long start = System.nanoTime();
+
+		try {
+			byte[] data = Files.readAllBytes(input.toPath());
+			result.bytesRead = data.length;
+
+			String serial = Econogram.decompressSerialisedText(new String(data, StandardCharsets.UTF_8));
+			if (serial.equals(Econogram.OPEN_FILE_ERROR_NEWER_VERSION)) {
+				throw new IOException("created with a newer version of Econogram");
+			}
+			if (serial.isEmpty()) {
+				throw new IOException("not an Econogram file");
+			}
+
+			DocumentSnapshot snapshot = new DocumentSnapshot(serial, format.equals("png") ? zoom : BandedExporter.DEFAULT_ZOOM);
+
+			if (format.equals("png")) {
+				//the files are already being shared out between the workers, so each one only draws its bands on one thread
+				OutputStream out = new BufferedOutputStream(new FileOutputStream(result.output));
+				try {
+					new BandedExporter(snapshot).writePng(out, dpi, 1);
+				} finally {
+					out.close();
+				}
+
+			} else if (format.equals("svg")) {
+				Canvas.exportSvg(snapshot, result.output.getPath());
+
+			} else {
+				Canvas.exportPdf(snapshot, result.output.getPath());
+			}
+
+			result.bytesWritten = result.output.length();
+
+		} catch (Throwable e) {
+			//anything at all going wrong with one file shouldn't stop the rest
+			result.failure = e;
+		}
+
+		result.nanoseconds = System.nanoTime() - start;
+		return result;
+	}
+
+	static String describe(Throwable failure) {
+		return failure.getMessage() != null ? String.format("%s (%s)", failure.getMessage(), failure.getClass().getSimpleName()) : failure.getClass().getSimpleName();
+	}
+
+	//returns how many files failed
+	int run() throws InterruptedException {
+		if (outputDirectory != null) {
+			outputDirectory.mkdirs();
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		CompletionService<Result> completed = new ExecutorCompletionService<Result>(pool);
+
+		long start = System.nanoTime();
+
+		for (File file : files) {
+			completed.submit(new Callable<Result>() {
+				@Override
+				public Result call() {
+					return convert(file);
+				}
+			});
+		}
+
+		List<Result> failures = new ArrayList<Result>();
+		long totalRead = 0;
+		long totalWritten = 0;
+
+		try {
+			//reported as they finish, rather than in the order they were given
+			for (int i = 0; i < files.size(); ++i) {
+				Result result = completed.take().get();
+
+				if (result.failure == null) {
+					System.out.printf(Locale.ROOT, "[%d/%d] OK      %s -> %s (%.0f ms, %d KB)\n", i + 1, files.size(), result.file.getPath(),
+									  result.output.getName(), result.nanoseconds / 1e6, result.bytesWritten / 1024);
+					totalRead += result.bytesRead;
+					totalWritten += result.bytesWritten;
+
+				} else {
+					System.out.printf(Locale.ROOT, "[%d/%d] FAILED  %s (%.0f ms): %s\n", i + 1, files.size(), result.file.getPath(),
+									  result.nanoseconds / 1e6, describe(result.failure));
+					failures.add(result);
+				}
+			}
+
+		} catch (ExecutionException e) {
+			//convert() catches everything itself, so this can't really happen
+			throw new RuntimeException(e.getCause());
+
+		} finally {
+			pool.shutdownNow();
+		}
+
+		double seconds = (System.nanoTime() - start) / 1e9;
+		int succeeded = files.size() - failures.size();
+
+		System.out.printf(Locale.ROOT, "\n%d of %d files converted to %s in %.2f s on %d thread%s (%.1f files/s, %.1f MB read, %.1f MB written)\n",
+						  succeeded, files.size(), format.toUpperCase(Locale.ROOT), seconds, threads, threads == 1 ? "" : "s",
+						  files.size() / Math.max(seconds, 1e-9), totalRead / 1048576.0, totalWritten / 1048576.0);
+
+		if (!failures.isEmpty()) {
+			System.out.printf("%d failed:\n", failures.size());
+			for (Result failure : failures) {
+				System.out.printf("  %s: %s\n", failure.file.getPath(), describe(failure.failure));
+			}
+		}
+
+		return failures.size();
+	}
+
+	public static void main(String args[]) throws InterruptedException {
+		//has to be set before anything touches AWT, so that it works without a display
+		System.setProperty("java.awt.headless", "true");
+
+		BatchConverter converter = new BatchConverter();
+		if (!converter.parseArguments(args)) {
+			System.err.println(USAGE);
+			System.exit(2);
+		}
+
+		System.exit(converter.run() == 0 ? 0 : 1);
+	}
+}
@@ -42,7 +42,7 @@ public class CalculatedPoint extends Point {
 	
 	public CalculatedPoint(String fullSerial, int uid, Canvas canvas, DrawObject parent_) {
 		super(fullSerial, uid, canvas, parent_);
-		deserialiseTree(fullSerial);
+		reloadOwnSerialisation(fullSerial);
 		
 		label = (Label) findChildWithUID(labelReloadUID);
 		hzLine = (PointLine) findChildWithUID(hzLineReloadUID);
@@ -51,6 +51,10 @@ public class CalculatedPoint extends Point {
 		line2 = (PrimaryLine) findChildWithUID(line2ReloadUID);
 		primaryAxisAtCreation = (Axis) findChildWithUID(primaryAxisReloadUID);
 		
+		//the lines are our siblings rather than our children, so they don't get found here, and a loaded point stays where
+		//it was saved. for a Keynesian LRAS that's where its 2 unit chords crossed, which could be hundreds of units from
+		//where the exact curve crosses (or somewhere it doesn't cross at all), so a point made again between the same two
+		//lines can end up a long way from the saved one
 		recalculateLocation();
 	}
 	
@@ -72,13 +76,14 @@ public class CalculatedPoint extends Point {
 			return;
 		}
 		
-		Coordinate intersection = line1.intersection(line2);
+		//this happens on every render, so it goes through the lines' caches, which only work it out again if one of them has changed
+		Coordinate intersection = line1.cachedIntersection(line2);
 		
 		if (intersection != null) {
 			relativePosition.x = intersection.x + line1.parent.relativePosition.x - primaryAxisAtCreation.relativePosition.x;
 			relativePosition.y = intersection.y + line1.parent.relativePosition.y - primaryAxisAtCreation.relativePosition.y;
 		} else {
-			intersection = line2.intersection(line1);
+			intersection = line2.cachedIntersection(line1);
 			if (intersection != null) {
 				relativePosition.x = intersection.x + line1.parent.relativePosition.x - primaryAxisAtCreation.relativePosition.x;
 				relativePosition.y = intersection.y + line1.parent.relativePosition.y - primaryAxisAtCreation.relativePosition.y;
@@ -86,10 +91,33 @@ public class CalculatedPoint extends Point {
 		}
 	}
 	
+	//the versions of line1 and line2 when we were last rendered
+	int renderedLine1Version = -1;
+	int renderedLine2Version = -1;
+	
 	@Override
-	public void addDrawPrimativesPreChild(Coordinate base, List<DrawPrimative> primatives) {
+	protected boolean isRenderCacheValid(RenderContext context, Coordinate base) {
+		//we follow line1 and line2, which aren't our ancestors or children, so they don't mark us dirty when they move
+		if (line1 == null || line2 == null || line1.geometryVersion != renderedLine1Version || line2.geometryVersion != renderedLine2Version) {
+			return false;
+		}
+		return super.isRenderCacheValid(context, base);
+	}
+	
+	//our parent works out the base from where we were, so move it along with us, otherwise we'd always be drawn
+	//where the lines crossed last time (and with the render cached, that could be for a long time)
+	@Override
+	public List<DrawPrimative> getRender(RenderContext context, Coordinate base) {
+		double oldX = relativePosition.x;
+		double oldY = relativePosition.y;
 		recalculateLocation();
-		super.addDrawPrimativesPreChild(base, primatives);
+		
+		List<DrawPrimative> primatives = super.getRender(context, new Coordinate(base.x + relativePosition.x - oldX, base.y + relativePosition.y - oldY));
+		if (line1 != null && line2 != null) {
+			renderedLine1Version = line1.geometryVersion;
+			renderedLine2Version = line2.geometryVersion;
+		}
+		return primatives;
 	}
 	
 	
@@ -1,12 +1,24 @@
-import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.event.*;
 import java.awt.*;
+import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
-import java.io.File;
+import java.awt.image.VolatileImage;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class Canvas extends JPanel implements KeyListener {
 	List<DrawObject> children;
@@ -19,6 +31,15 @@ public class Canvas extends JPanel implements KeyListener {
 	double usedHeight = 550;
 	int gridMinorColour = 0xC0C0C0;
 	int gridMajorColour = 0x808080;
+	GridLayer gridLayer = new GridLayer();
+	
+	//bumped whenever something that every object's render depends on changes (e.g. guides, hints, the primary axis),
+	//which invalidates all of the retained display lists at once
+	int renderGeneration = 0;
+	
+	public void invalidateRenderCache() {
+		renderGeneration++;
+	}
 	
 	public DrawObject findChildWithUID(int uid) {
 		for (DrawObject c : children) {
@@ -35,6 +56,7 @@ public class Canvas extends JPanel implements KeyListener {
 	
 	public void showPrimaryAxisHint(boolean state) {
 		showingPrimaryAxisHint = state;
+		invalidateRenderCache();
 	}
 	
 	public boolean isShowingGrid() {
@@ -51,6 +73,7 @@ public class Canvas extends JPanel implements KeyListener {
 	
 	public void showParentGuides(boolean state) {
 		showingParentGuides = state;
+		invalidateRenderCache();
 	}
 
 	protected double width;
@@ -110,6 +133,8 @@ public class Canvas extends JPanel implements KeyListener {
 	
 	public void deleteChild(DrawObject obj) {
 		children.remove(obj);
+		forgetRender(obj);
+		addDirtyRegion(obj.getRenderBounds());
 	}
 	
 	public void scrollY(double amount) {
@@ -122,7 +147,7 @@ public class Canvas extends JPanel implements KeyListener {
 			zoomPanSettings.y = 0.0;
 		}
 		
-		repaint();
+		repaintPanned();
 	}
 	
 	public void scrollX(double amount) {
@@ -135,7 +160,7 @@ public class Canvas extends JPanel implements KeyListener {
 			zoomPanSettings.x = 0.0;
 		}
 		
-		repaint();
+		repaintPanned();
 	}
 	
 	public Canvas(Econogram eg) {
@@ -260,26 +285,44 @@ public class Canvas extends JPanel implements KeyListener {
 	
 	
 	public void export(String filename) throws IOException {
-		boolean primaryHintOn = showingPrimaryAxisHint;
-		boolean gridOn = showingGrid;
-		boolean parentOn = showingParentGuides;
-		showingParentGuides = false;
-		showingGrid = false;
-		showingPrimaryAxisHint = false;
-		double zoom = zoomPanSettings.zoom;
-		zoomPanSettings.zoom = 4.0;
-		
-	    BufferedImage imagebuf = new BufferedImage((int)(getUsedWidth() * zoomPanSettings.zoom), (int)(getUsedHeight() * zoomPanSettings.zoom), BufferedImage.TYPE_3BYTE_BGR);
-	    Graphics2D graphics2D = imagebuf.createGraphics();
-	    graphics2D.setColor(Color.WHITE);
-	    graphics2D.fillRect(0, 0, (int)(getUsedWidth() * zoomPanSettings.zoom), (int)(getUsedHeight() * zoomPanSettings.zoom));
-	    printAll(graphics2D);
-	    ImageIO.write(imagebuf, "png", new File(filename));
-	    
-	    zoomPanSettings.zoom = zoom;
-	    showingPrimaryAxisHint = primaryHintOn;
-	    showingGrid = gridOn;
-	    showingParentGuides = parentOn;
+		export(new BandedExporter(this, BandedExporter.DEFAULT_ZOOM), filename, BandedExporter.DEFAULT_ZOOM * BandedExporter.DOCUMENT_UNITS_PER_INCH);
+	}
+	
+	//the slow part of exporting. it only uses the exporter's copy of the document, so it can be done on any thread
+	static void export(BandedExporter exporter, String filename, double dpi) throws IOException {
+		try {
+			exporter.writePng(filename, dpi);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Export was interrupted");
+		}
+	}
+	
+	public void exportSvg(String filename) throws IOException {
+		exportSvg(new DocumentSnapshot(this, BandedExporter.DEFAULT_ZOOM), filename);
+	}
+	
+	//each element is written as soon as it's made, straight into the file through a buffer, so it never all has to be in memory
+	static void exportSvg(DocumentSnapshot snapshot, String filename) throws IOException {
+		Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(filename), StandardCharsets.UTF_8));
+		try {
+			snapshot.write(new SvgWriter(out));
+		} finally {
+			out.close();
+		}
+	}
+	
+	public void exportPdf(String filename) throws IOException {
+		exportPdf(new DocumentSnapshot(this, BandedExporter.DEFAULT_ZOOM), filename);
+	}
+	
+	static void exportPdf(DocumentSnapshot snapshot, String filename) throws IOException {
+		OutputStream out = new BufferedOutputStream(new FileOutputStream(filename));
+		try {
+			snapshot.writePrintArea(new PdfWriter(out));
+		} finally {
+			out.close();
+		}
 	}
 	
 	public void updatePropertiesPanel() {
@@ -303,7 +346,7 @@ public class Canvas extends JPanel implements KeyListener {
 			zoomPanSettings.y = 0.0;
 		}
 		
-		repaint();
+		repaintPanned();
 	}
 	
 	public void setZoom(double zoom) {
@@ -322,73 +365,660 @@ public class Canvas extends JPanel implements KeyListener {
 	public void addObject(DrawObject obj) {
 		obj.setCanvasParent(this);
 		children.add(obj);
+		
+		//it might be coming back after being deleted with its old render still cached, which would never say where it is
+		obj.markRenderDirty();
 	}
 	
-	public DrawObject getObjectAtPosition(double x, double y) {
-		List<DrawPrimative> primatives = getPrimatives();
+	//anything further than this from the mouse (in document units) can't be clicked on
+	static final double HIT_TOLERANCE = 4.0;
+	//anything at least this far inside counts as a direct hit, and ties between direct hits go to whatever was painted first
+	static final double HIT_DEPTH = 1.0;
+	
+	PrimativeQuadtree spatialIndex = new PrimativeQuadtree();
+	
+	//what's currently in the spatial index for each object: the render it came from, the primatives it added itself, and
+	//which children it had. an object's entries only get redone when it has been re-rendered
+	class IndexedRender {
+		List<DrawPrimative> render;
+		List<DrawObject> children = new ArrayList<DrawObject>();
+		List<PrimativeQuadtree.Entry> entries = new ArrayList<PrimativeQuadtree.Entry>();
+	}
+	Map<DrawObject, IndexedRender> indexedRenders = new IdentityHashMap<DrawObject, IndexedRender>();
+	List<PrimativeQuadtree.Entry> hitCandidates = new ArrayList<PrimativeQuadtree.Entry>();
+	
+	//catches up with any objects that have been re-rendered, added or deleted since last time. the objects themselves
+	//say which parts of them have changed as they get re-rendered (see addDirtyRegion()), which takes care of the tiles
+	void syncRenders() {
+		if (tileCacheGeneration != renderGeneration) {
+			tileCache.clear();
+			tileCacheGeneration = renderGeneration;
+		}
 		
-		double lenience = -1.0;
-
-		//start by requiring very high precision (i.e. slightly inside the object)
-		//and if nothing's found, keep iterating with more lenience until we find something
-		//to click on, or there's no object there (lenience reaches 5.0)
-		while (lenience < 4.1) {
-			for (DrawPrimative primative : primatives) {			
-				if (x >= primative.getX() - lenience && x < primative.getX() + primative.getWidthGivenPosition(x, y) + 2 * lenience && y >= primative.getY() - lenience && y < primative.getY() + primative.getHeightGivenPosition(x, y) + 2 * lenience) {
-					return primative.parent;
+		RenderContext context = getRenderContext();
+		for (DrawObject child : children) {
+			child.getRender(context, child.relativePosition);
+			syncIndex(child);
+		}
+	}
+	
+	//re-indexes the object's own primatives if it has been re-rendered, then does the same for its children. anything
+	//under it having changed would have re-rendered it too, so if it hasn't been, none of them need looking at
+	void syncIndex(DrawObject obj) {
+		IndexedRender indexed = indexedRenders.get(obj);
+		List<DrawPrimative> render = obj.cachedRender;
+		
+		if (indexed != null && indexed.render == render) {
+			return;
+		}
+		
+		if (indexed == null) {
+			indexed = new IndexedRender();
+			indexedRenders.put(obj, indexed);
+		}
+		
+		//children that have been deleted take their entries with them
+		if (!sameObjects(indexed.children, obj.children)) {
+			Set<DrawObject> current = Collections.newSetFromMap(new IdentityHashMap<DrawObject, Boolean>());
+			current.addAll(obj.children);
+			for (DrawObject child : indexed.children) {
+				if (!current.contains(child)) {
+					forgetRender(child);
 				}
 			}
-			lenience += 1.0;
+			indexed.children.clear();
+			indexed.children.addAll(obj.children);
 		}
 		
-		return null;
+		for (PrimativeQuadtree.Entry entry : indexed.entries) {
+			spatialIndex.remove(entry);
+		}
+		indexed.entries.clear();
+		indexed.render = render;
+		
+		for (int i = 0; i < render.size(); ++i) {
+			if (i >= obj.cachedFirstChildPrimative && i < obj.cachedLastChildPrimative) {
+				continue;
+			}
+			
+			PrimativeQuadtree.Entry entry = new PrimativeQuadtree.Entry(render.get(i), obj, i, i >= obj.cachedLastChildPrimative);
+			indexed.entries.add(entry);
+			spatialIndex.insert(entry);
+		}
+		
+		for (DrawObject child : obj.children) {
+			syncIndex(child);
+		}
+	}
+	
+	static boolean sameObjects(List<DrawObject> a, List<DrawObject> b) {
+		if (a.size() != b.size()) {
+			return false;
+		}
+		for (int i = 0; i < a.size(); ++i) {
+			if (a.get(i) != b.get(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	//takes the object and everything that was under it out of the spatial index
+	void forgetRender(DrawObject obj) {
+		IndexedRender indexed = indexedRenders.remove(obj);
+		if (indexed == null) {
+			return;
+		}
+		
+		for (PrimativeQuadtree.Entry entry : indexed.entries) {
+			spatialIndex.remove(entry);
+		}
+		for (DrawObject child : indexed.children) {
+			forgetRender(child);
+		}
+	}
+	
+	//whether a gets painted before b. that's the order the top level objects' renders are in, where each object's own
+	//primatives come either before or after all of its children's
+	boolean paintedBefore(PrimativeQuadtree.Entry a, PrimativeQuadtree.Entry b) {
+		if (a.owner == b.owner) {
+			return a.order < b.order;
+		}
+		
+		List<DrawObject> aPath = getPathFromTop(a.owner);
+		List<DrawObject> bPath = getPathFromTop(b.owner);
+		int depth = 0;
+		while (depth < aPath.size() && depth < bPath.size() && aPath.get(depth) == bPath.get(depth)) {
+			++depth;
+		}
+		
+		//one owner is underneath the other one
+		if (depth == aPath.size()) {
+			return !a.afterChildren;
+		}
+		if (depth == bPath.size()) {
+			return b.afterChildren;
+		}
+		
+		List<DrawObject> siblings = depth == 0 ? children : aPath.get(depth - 1).children;
+		return siblings.indexOf(aPath.get(depth)) < siblings.indexOf(bPath.get(depth));
+	}
+	
+	static List<DrawObject> getPathFromTop(DrawObject obj) {
+		List<DrawObject> path = new ArrayList<DrawObject>();
+		for (DrawObject o = obj; o != null; o = o.parent) {
+			path.add(0, o);
+		}
+		return path;
+	}
+	
+	public DrawObject getObjectAtPosition(double x, double y) {
+		syncRenders();
+		
+		hitCandidates.clear();
+		spatialIndex.query(x, y, HIT_TOLERANCE, hitCandidates);
+		
+		PrimativeQuadtree.Entry best = null;
+		double bestDistance = 0;
+		
+		for (PrimativeQuadtree.Entry candidate : hitCandidates) {
+			double distance = Math.max(candidate.primative.distanceTo(x, y), -HIT_DEPTH);
+			if (distance > HIT_TOLERANCE) {
+				continue;
+			}
+			
+			if (best == null || distance < bestDistance || (distance == bestDistance && paintedBefore(candidate, best))) {
+				best = candidate;
+				bestDistance = distance;
+			}
+		}
+		
+		hitCandidates.clear();
+		return best == null ? null : best.primative.parent;
+	}
+	
+	//what the canvas is currently showing, for rendering it the way it looks on the screen
+	public RenderContext getRenderContext() {
+		return new RenderContext(zoomPanSettings.zoom, zoomPanSettings.x, zoomPanSettings.y, showingGrid, showingParentGuides, showingPrimaryAxisHint,
+								 TextMetrics.FONT_RENDER_CONTEXT, null);
 	}
 	
 	public List<DrawPrimative> getPrimatives() {
+		return getPrimatives(getRenderContext());
+	}
+	
+	public List<DrawPrimative> getPrimatives(RenderContext context) {
 		List<DrawPrimative> primatives = new ArrayList<DrawPrimative>();
 
 		for (DrawObject child : children) {
-			primatives.addAll(child.getRender(child.relativePosition));
+			primatives.addAll(child.getRender(context, child.relativePosition));
 		}
 		
 		return primatives;
 	}
 	
-	@Override
-	public void paint(Graphics g) { 
-		g.setColor(Color.WHITE);
-		g.fillRect(0, 0, (int) width, (int) height);
+	//how far outside the painted area (in document units) a primative can be and still get drawn, which covers
+	//antialiasing, stroke caps and text descenders that the bounding boxes don't quite include
+	static final double CULLING_MARGIN = 10.0;
+	
+	//works out which part of the document ends up inside the clip, or null if there's no clip (e.g. when exporting)
+	Rectangle2D.Double getVisibleDocumentRect(Rectangle clip) {
+		return getVisibleDocumentRect(clip, getRenderContext());
+	}
+	
+	static Rectangle2D.Double getVisibleDocumentRect(Rectangle clip, RenderContext context) {
+		if (clip == null) {
+			return null;
+		}
 		
-		double oldW = getUsedWidth();
-		double oldH = getUsedHeight();
+		double zoom = context.zoom;
+		return new Rectangle2D.Double((clip.x + context.x) / zoom - CULLING_MARGIN, (clip.y + context.y) / zoom - CULLING_MARGIN, 
+									  clip.width / zoom + 2 * CULLING_MARGIN, clip.height / zoom + 2 * CULLING_MARGIN);
+	}
+	
+	//unlike Rectangle2D.intersects() this counts touching and zero-sized boxes (e.g. horizontal lines) as overlapping
+	static boolean overlaps(Rectangle2D a, Rectangle2D b) {
+		return a.getMinX() <= b.getMaxX() && b.getMinX() <= a.getMaxX() && a.getMinY() <= b.getMaxY() && b.getMinY() <= a.getMaxY();
+	}
+	
+	//64MB is 256 tiles, which is a few screenfuls at a couple of zoom levels
+	static final long DEFAULT_TILE_CACHE_BYTES = 64L * 1024 * 1024;
+	
+	TileCache tileCache = new TileCache(DEFAULT_TILE_CACHE_BYTES);
+	int tileCacheGeneration = 0;
+	
+	//while something is being dragged, panned or zoomed, any tiles that aren't already cached get drawn straight onto the
+	//screen in draft quality (so they never end up in the cache), then once it's been left alone for a moment everything
+	//gets repainted properly
+	static final int DEFAULT_IDLE_DELAY = 250;
+	
+	RenderQuality fullQuality = RenderQuality.FULL;
+	RenderQuality draftQuality = RenderQuality.DRAFT;
+	int idleDelay = DEFAULT_IDLE_DELAY;
+	boolean interacting = false;
+	boolean drawnInDraft = false;
+	
+	Timer idleTimer = new Timer(DEFAULT_IDLE_DELAY, new ActionListener() {
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			finishedInteracting();
+		}
+	});
+	
+	//called for every frame of a drag, pan or zoom
+	public void interactionHappened() {
+		if (idleDelay <= 0) {
+			return;
+		}
 		
-		if (showingGrid) {
-			for (int i = 0; i < 500  / zoomPanSettings.zoom; ++i) {
-				int val = (int) (i * 12 * zoomPanSettings.zoom);
-				int xshift = (int) -zoomPanSettings.x;
-				int yshift = (int) -zoomPanSettings.y;
+		interacting = true;
+		idleTimer.setInitialDelay(idleDelay);
+		idleTimer.setRepeats(false);
+		idleTimer.restart();
+	}
+	
+	void finishedInteracting() {
+		idleTimer.stop();
+		interacting = false;
+		
+		if (drawnInDraft) {
+			drawnInDraft = false;
+			repaint();
+		}
+	}
+	
+	//how long (in milliseconds) nothing has to happen for before drawing properly again. 0 turns draft quality off altogether
+	public void setIdleDelay(int milliseconds) {
+		idleDelay = milliseconds;
+		if (idleDelay <= 0) {
+			finishedInteracting();
+		}
+	}
+	
+	public int getIdleDelay() {
+		return idleDelay;
+	}
+	
+	public void setFullQuality(RenderQuality quality) {
+		fullQuality = quality;
+		
+		//the cached tiles were all drawn at the old quality
+		tileCache.clear();
+		repaint();
+	}
+	
+	public RenderQuality getFullQuality() {
+		return fullQuality;
+	}
+	
+	public void setTileCacheMemoryLimit(long bytes) {
+		tileCache.setMemoryLimit(bytes);
+	}
 	
-				g.setColor(new Color((i % 4) == 0 ? gridMajorColour : gridMinorColour));
+	//throws away any tiles that show part of the given area of the document
+	public void invalidateRegion(Rectangle2D region) {
+		if (region == null) {
+			return;
+		}
+		tileCache.invalidate(new Rectangle2D.Double(region.getX() - CULLING_MARGIN, region.getY() - CULLING_MARGIN, 
+													region.getWidth() + 2 * CULLING_MARGIN, region.getHeight() + 2 * CULLING_MARGIN));
+	}
+	
+	//the part of the document (in document units) that has changed since it was last painted. the objects add to it as
+	//they get re-rendered, and it gets turned into a repaint of just that part of the screen
+	Rectangle2D.Double dirtyRegion = null;
+	boolean dirtyRepaintPending = false;
+	
+	//the tiles showing the region are out of date as well, so they get thrown away here rather than waiting for the repaint
+	public void addDirtyRegion(Rectangle2D region) {
+		if (region == null) {
+			return;
+		}
+		invalidateRegion(region);
+		
+		if (dirtyRegion == null) {
+			dirtyRegion = new Rectangle2D.Double();
+			dirtyRegion.setRect(region);
+		} else {
+			dirtyRegion.add(region);
+		}
+	}
+	
+	//the part of the screen showing the given area of the document, with enough room around it for antialiasing etc.
+	Rectangle getScreenRect(Rectangle2D region) {
+		double zoom = zoomPanSettings.zoom;
+		int left = (int) Math.floor((region.getMinX() - CULLING_MARGIN) * zoom - zoomPanSettings.x);
+		int top = (int) Math.floor((region.getMinY() - CULLING_MARGIN) * zoom - zoomPanSettings.y);
+		int right = (int) Math.ceil((region.getMaxX() + CULLING_MARGIN) * zoom - zoomPanSettings.x);
+		int bottom = (int) Math.ceil((region.getMaxY() + CULLING_MARGIN) * zoom - zoomPanSettings.y);
+		return new Rectangle(left, top, right - left, bottom - top);
+	}
 	
-				g.drawLine(xshift + 0, yshift + val, xshift + 5000, yshift + val);
-				g.drawLine(xshift + val, yshift + 0, xshift + val, yshift + 5000);
+	//called when an object changes. there are often several changes in a row, so the objects get re-rendered once they've
+	//all been made, and then only the part of the screen covering what was changed (before and after) gets repainted
+	public void repaintChangedObjects() {
+		if (dirtyRepaintPending) {
+			return;
+		}
+		dirtyRepaintPending = true;
+		
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				dirtyRepaintPending = false;
+				syncRenders();
+				
+				if (dirtyRegion != null) {
+					repaint(getScreenRect(dirtyRegion));
+					dirtyRegion = null;
+				}
+			}
+		});
+	}
+	
+	//draws every primative that overlaps the clip. the objects must already have been rendered (e.g. by syncRenders())
+	void drawPrimatives(RenderContext context, Rectangle clip) {
+		Rectangle2D.Double visible = getVisibleDocumentRect(clip, context);
+		
+		//the renders get kept, so they're asked for without the graphics (which would otherwise be kept along with them)
+		RenderContext renderContext = context.withGraphics(null);
+		
+		for (DrawObject child : children) {
+			List<DrawPrimative> primatives = child.getRender(renderContext, child.relativePosition);
+			
+			if (visible != null && (child.getRenderBounds() == null || !overlaps(child.getRenderBounds(), visible))) {
+				continue;
+			}
+			
+			for (DrawPrimative primative : primatives) {
+				if (visible == null || overlaps(primative.getBounds(), visible)) {
+					primative.draw(context);
+				}
 			}
 		}
+	}
+	
+	BufferedImage renderTile(int tx, int ty) {
+		BufferedImage tile = new BufferedImage(TileCache.TILE_SIZE, TileCache.TILE_SIZE, BufferedImage.TYPE_INT_ARGB_PRE);
+		
+		Graphics2D g = tile.createGraphics();
+		fullQuality.apply(g);
+		Rectangle tileRect = new Rectangle(0, 0, TileCache.TILE_SIZE, TileCache.TILE_SIZE);
+		g.setClip(tileRect);
+		
+		//the tile's top left corner is the origin, which is the same as panning to it
+		drawPrimatives(getRenderContext().withPan(tx * TileCache.TILE_SIZE, ty * TileCache.TILE_SIZE).withGraphics(g), tileRect);
+		g.dispose();
+		
+		return tile;
+	}
+	
+	//draws what would be in the tile straight onto the screen, in the same place as the tile would go
+	void drawDraftTile(Graphics g, int tx, int ty, int left, int top) {
+		Graphics2D draft = (Graphics2D) g.create();
+		draft.translate(left, top);
+		Rectangle tileRect = new Rectangle(0, 0, TileCache.TILE_SIZE, TileCache.TILE_SIZE);
+		draft.clip(tileRect);
+		draftQuality.apply(draft);
+		
+		drawPrimatives(getRenderContext().withPan(tx * TileCache.TILE_SIZE, ty * TileCache.TILE_SIZE).withGraphics(draft), tileRect);
+		draft.dispose();
+		
+		drawnInDraft = true;
+	}
+	
+	//copies the tiles covering the clip onto the screen, rendering any that aren't in the cache
+	void drawTiles(Graphics g, Rectangle clip) {
+		double zoom = zoomPanSettings.zoom;
+		int size = TileCache.TILE_SIZE;
+		
+		int firstX = (int) Math.floor((clip.x + zoomPanSettings.x) / size);
+		int firstY = (int) Math.floor((clip.y + zoomPanSettings.y) / size);
+		int lastX = (int) Math.floor((clip.x + clip.width + zoomPanSettings.x) / size);
+		int lastY = (int) Math.floor((clip.y + clip.height + zoomPanSettings.y) / size);
 		
+		for (int ty = firstY; ty <= lastY; ++ty) {
+			for (int tx = firstX; tx <= lastX; ++tx) {
+				int left = (int) Math.round(tx * size - zoomPanSettings.x);
+				int top = (int) Math.round(ty * size - zoomPanSettings.y);
+				
+				BufferedImage tile = tileCache.get(zoom, tx, ty);
+				if (tile == null && interacting) {
+					drawDraftTile(g, tx, ty, left, top);
+					continue;
+				}
+				if (tile == null) {
+					tile = renderTile(tx, ty);
+					tileCache.put(zoom, tx, ty, tile);
+				}
+				
+				g.drawImage(tile, left, top, null);
+			}
+		}
+	}
+	
+	//each object keeps its own extent up to date when it gets re-rendered, so this only needs to look at the top level
+	void updateUsedSize() {
 		usedHeight = 550;
 		usedWidth = 750;
 		
-		List<DrawPrimative> primatives = getPrimatives();
-		for (DrawPrimative primative : primatives) {
-			primative.draw(g, zoomPanSettings);
+		for (DrawObject child : children) {
+			if (child.renderExtentRight > usedWidth) {
+				usedWidth = child.renderExtentRight;
+			}
+			if (child.renderExtentBottom > usedHeight) {
+				usedHeight = child.renderExtentBottom;
+			}
+		}
+	}
+	
+	//a copy of what's on the screen that's kept between paints. panning shifts what's already in it with copyArea, so only
+	//the strips that have come into view need drawing, and otherwise only the parts that have been asked to be repainted get
+	//redrawn. the damage is kept in zoomed document pixels (i.e. with the pan added on) so that it stays put if the pan
+	//changes before the next paint
+	VolatileImage backBuffer = null;
+	boolean backBufferValid = false;
+	double bufferZoom;
+	double bufferPanX;
+	double bufferPanY;
+	Rectangle2D.Double bufferDamage = null;
+	
+	//everything that asks for a repaint comes through here (panning goes round it, see repaintPanned())
+	@Override
+	public void repaint(long tm, int x, int y, int w, int h) {
+		addBufferDamage(new Rectangle(x, y, w, h));
+		super.repaint(tm, x, y, w, h);
+	}
+	
+	//the back buffer works out for itself what a pan has uncovered, so there's nothing to mark as damaged
+	void repaintPanned() {
+		RepaintManager.currentManager(this).addDirtyRegion(this, 0, 0, getWidth(), getHeight());
+	}
+	
+	synchronized void addBufferDamage(Rectangle screenRect) {
+		//repaint() gets called while the panel is still being constructed
+		if (zoomPanSettings == null || screenRect.isEmpty()) {
+			return;
+		}
+		
+		Rectangle2D.Double damage = new Rectangle2D.Double(screenRect.x + zoomPanSettings.x, screenRect.y + zoomPanSettings.y, screenRect.width, screenRect.height);
+		if (bufferDamage == null) {
+			bufferDamage = damage;
+		} else {
+			bufferDamage.add(damage);
+		}
+	}
+	
+	//the damage on the screen as it is now, rounded outwards to whole pixels
+	synchronized Rectangle takeBufferDamage() {
+		if (bufferDamage == null) {
+			return null;
+		}
+		
+		int left = (int) Math.floor(bufferDamage.getMinX() - zoomPanSettings.x);
+		int top = (int) Math.floor(bufferDamage.getMinY() - zoomPanSettings.y);
+		int right = (int) Math.ceil(bufferDamage.getMaxX() - zoomPanSettings.x);
+		int bottom = (int) Math.ceil(bufferDamage.getMaxY() - zoomPanSettings.y);
+		bufferDamage = null;
+		
+		return new Rectangle(left, top, right - left, bottom - top);
+	}
+	
+	//null if it can't have one, e.g. when it isn't on the screen yet
+	VolatileImage createBackBuffer(int w, int h) {
+		return createVolatileImage(w, h);
+	}
+	
+	//brings the back buffer up to date and copies it onto the screen, starting again if its contents get lost along the
+	//way. returns false if there isn't a back buffer, in which case it all has to be drawn straight onto the screen
+	boolean paintFromBackBuffer(Graphics g) {
+		int w = getWidth();
+		int h = getHeight();
+		if (w <= 0 || h <= 0) {
+			return false;
+		}
+		
+		while (true) {
+			if (backBuffer == null || backBuffer.getWidth() != w || backBuffer.getHeight() != h) {
+				if (backBuffer != null) {
+					backBuffer.flush();
+				}
+				backBuffer = createBackBuffer(w, h);
+				backBufferValid = false;
+				
+				if (backBuffer == null) {
+					return false;
+				}
+			}
 			
-			if (primative.getX() + primative.getWidth() > usedWidth) {
-				usedWidth = primative.getX() + primative.getWidth();
+			int state = backBuffer.validate(getGraphicsConfiguration());
+			if (state == VolatileImage.IMAGE_INCOMPATIBLE) {
+				backBuffer.flush();
+				backBuffer = null;
+				continue;
 			}
-			if (primative.getY() + primative.getHeight() > usedHeight) {
-				usedHeight = primative.getY() + primative.getHeight();
+			if (state == VolatileImage.IMAGE_RESTORED) {
+				backBufferValid = false;
 			}
+			
+			updateBackBuffer(w, h);
+			g.drawImage(backBuffer, 0, 0, null);
+			
+			if (!backBuffer.contentsLost()) {
+				return true;
+			}
+			backBufferValid = false;
+		}
+	}
+	
+	void updateBackBuffer(int w, int h) {
+		Rectangle screen = new Rectangle(0, 0, w, h);
+		List<Rectangle> regions = new ArrayList<Rectangle>();
+		
+		//anything that syncRenders() found had changed goes in with the rest of the damage
+		if (dirtyRegion != null) {
+			addBufferDamage(getScreenRect(dirtyRegion));
+			dirtyRegion = null;
 		}
+		Rectangle damage = takeBufferDamage();
+		
+		Graphics2D g = backBuffer.createGraphics();
+		
+		//the tiles and grid only land on the same pixels after a pan if it's by a whole number of pixels
+		double shiftX = bufferPanX - zoomPanSettings.x;
+		double shiftY = bufferPanY - zoomPanSettings.y;
+		int dx = (int) Math.rint(shiftX);
+		int dy = (int) Math.rint(shiftY);
+		
+		if (!backBufferValid || bufferZoom != zoomPanSettings.zoom || Math.abs(shiftX - dx) > 1e-9 || Math.abs(shiftY - dy) > 1e-9 ||
+				Math.abs(dx) >= w || Math.abs(dy) >= h) {
+			regions.add(screen);
+		} else {
+			if (dx != 0 || dy != 0) {
+				g.copyArea(0, 0, w, h, dx, dy);
+				
+				if (dx > 0) {
+					regions.add(new Rectangle(0, 0, dx, h));
+				} else if (dx < 0) {
+					regions.add(new Rectangle(w + dx, 0, -dx, h));
+				}
+				if (dy > 0) {
+					regions.add(new Rectangle(0, 0, w, dy));
+				} else if (dy < 0) {
+					regions.add(new Rectangle(0, h + dy, w, -dy));
+				}
+			}
+			if (damage != null && damage.intersects(screen)) {
+				regions.add(damage.intersection(screen));
+			}
+		}
+		
+		for (Rectangle region : regions) {
+			Graphics2D regionGraphics = (Graphics2D) g.create();
+			regionGraphics.clip(region);
+			drawScreenRegion(regionGraphics, region);
+			regionGraphics.dispose();
+		}
+		g.dispose();
+		
+		backBufferValid = true;
+		bufferZoom = zoomPanSettings.zoom;
+		bufferPanX = zoomPanSettings.x;
+		bufferPanY = zoomPanSettings.y;
+	}
+	
+	//the background, grid and tiles for part of the screen
+	void drawScreenRegion(Graphics g, Rectangle clip) {
+		g.setColor(Color.WHITE);
+		g.fillRect(clip.x, clip.y, clip.width, clip.height);
+		
+		if (showingGrid) {
+			gridLayer.paint((Graphics2D) g, clip, zoomPanSettings, gridMajorColour, gridMinorColour);
+		}
+		
+		drawTiles(g, clip);
+	}
+	
+	@Override
+	public void paint(Graphics g) { 
+		Rectangle clip = g.getClipBounds();
+		
+		double oldW = getUsedWidth();
+		double oldH = getUsedHeight();
+		
+		syncRenders();
+		
+		//printing and exporting want the real vectors (and don't have a clip), so they skip the tiles
+		if (clip == null || isPaintingForPrint()) {
+			g.setColor(Color.WHITE);
+			if (clip != null) {
+				g.fillRect(clip.x, clip.y, clip.width, clip.height);
+			} else {
+				g.fillRect(0, 0, (int) width, (int) height);
+			}
+			
+			if (showingGrid) {
+				gridLayer.paint((Graphics2D) g, clip, zoomPanSettings, gridMajorColour, gridMinorColour);
+			}
+			
+			fullQuality.apply((Graphics2D) g);
+			drawPrimatives(getRenderContext().withGraphics((Graphics2D) g), clip);
+		} else if (!paintFromBackBuffer(g)) {
+			drawScreenRegion(g, clip);
+		}
+		
+		//anything that turned out to have changed while painting has been drawn if it was inside the clip, otherwise it
+		//still needs doing (printing and exporting don't count, as they don't draw on the screen)
+		if (dirtyRegion != null && !isPaintingForPrint()) {
+			Rectangle dirty = getScreenRect(dirtyRegion).intersection(getVisibleRect());
+			if (dirty.isEmpty() || (clip != null && clip.contains(dirty))) {
+				dirtyRegion = null;
+			} else {
+				repaintChangedObjects();
+			}
+		}
+		
+		updateUsedSize();
 		
 		if (oldW != getUsedWidth() || oldH != getUsedHeight()) {
 			if (econogram != null) {
@@ -453,8 +1083,7 @@ public class Canvas extends JPanel implements KeyListener {
 			}
 			
 			if (deltaX != 0 || deltaY != 0) {
-				econogram.propertiesPanel.object.mouseDragging(deltaX, deltaY);
-				econogram.propertiesPanel.regenerate();
+				econogram.frameScheduler.queueDrag(econogram.propertiesPanel.object, deltaX, deltaY);
 			}
 		}
 	}
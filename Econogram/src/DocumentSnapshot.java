@@ -0,0 +1,101 @@
+import java.io.IOException;
+import java.util.List;
+
+//a copy of the document to export from, made by loading its own save data (at whatever zoom the export wants, so the canvas
+//on screen never has to change). nothing else holds on to it, so it can be drawn or written out on any thread while the user
+//carries on with the real one
+public class DocumentSnapshot {
+	List<DrawPrimative> primatives;
+	RenderContext context;
+
+	//the size of the area the canvas has been showing, in document units
+	double usedWidth;
+	double usedHeight;
+
+	//just the part with something on it, which is what gets printed
+	double printUsedWidth;
+	double printUsedHeight;
+
+	//this reads the document, so it has to be made on the event dispatch thread
+	public DocumentSnapshot(Canvas canvas, double zoom) {
+		//some objects only finish setting themselves up the first time they're rendered, which they need before they can be saved
+		canvas.syncRenders();
+		takePrimatives(new Canvas(canvas.serialise()), zoom);
+
+		//the size is whatever the canvas has been showing, the same as it always was
+		usedWidth = canvas.getUsedWidth();
+		usedHeight = canvas.getUsedHeight();
+		printUsedWidth = canvas.getPrintUsedWidth();
+		printUsedHeight = canvas.getPrintUsedHeight();
+	}
+
+	//loads a saved document (after it's been decompressed) straight into a snapshot, for when there's no canvas on screen to
+	//copy it from. nothing else ever sees the canvas it's loaded into, so this can be done on any thread
+	public DocumentSnapshot(String serial, double zoom) {
+		Canvas canvas = new Canvas(serial);
+
+		//the size normally gets worked out while painting, which this canvas never does. it's done at the zoom it was saved at
+		//(before changing to the export one) because text gets measured at the zoom it's shown at, and it needs to come out the
+		//same size as it would have done if the file had been opened and exported by hand
+		canvas.getPrimatives();
+		canvas.updateUsedSize();
+		usedWidth = canvas.getUsedWidth();
+		usedHeight = canvas.getUsedHeight();
+		printUsedWidth = canvas.getPrintUsedWidth();
+		printUsedHeight = canvas.getPrintUsedHeight();
+
+		takePrimatives(canvas, zoom);
+	}
+
+	void takePrimatives(Canvas snapshot, double zoom) {
+		context = RenderContext.forExport(zoom);
+		primatives = snapshot.getPrimatives(context);
+		for (DrawPrimative primative : primatives) {
+			//worked out now, so that anything drawing it later only ever reads them
+			primative.getBounds();
+		}
+	}
+
+	public List<DrawPrimative> getPrimatives() {
+		return primatives;
+	}
+
+	//what the primatives were rendered with, and so what they need drawing with (once there's something to draw them on)
+	public RenderContext getRenderContext() {
+		return context;
+	}
+
+	public double getUsedWidth() {
+		return usedWidth;
+	}
+
+	public double getUsedHeight() {
+		return usedHeight;
+	}
+
+	public double getPrintUsedWidth() {
+		return printUsedWidth;
+	}
+
+	public double getPrintUsedHeight() {
+		return printUsedHeight;
+	}
+
+	//writes out every primative, in the same order as they're painted in, onto a page the size the canvas has been showing
+	public void write(VectorWriter out) throws IOException {
+		write(out, usedWidth, usedHeight);
+	}
+
+	//the same, but onto a page just big enough for what's been drawn, the same as printing uses
+	public void writePrintArea(VectorWriter out) throws IOException {
+		write(out, printUsedWidth, printUsedHeight);
+	}
+
+	void write(VectorWriter out, double width, double height) throws IOException {
+		out.begin(width, height);
+		for (DrawPrimative primative : primatives) {
+			primative.write(out);
+		}
+		out.finish();
+	}
+}
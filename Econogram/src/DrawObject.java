@@ -1,3 +1,4 @@
+import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -68,6 +69,11 @@ public abstract class DrawObject {
 	public void deleteChild(DrawObject obj) {
 		obj.parent = null;
 		children.remove(obj);
+		markChildrenChanged();
+		
+		if (getCanvasParent() != null) {
+			getCanvasParent().addDirtyRegion(obj.getRenderBounds());
+		}
 	}
 		
 	public void mouseDragging(double deltaX, double deltaY) {
@@ -155,6 +161,18 @@ public abstract class DrawObject {
 		return null;
 	}
 	
+	//loads just this object's own data again, without adding its children a second time. subclasses of objects that have
+	//already deserialised their tree need this, as their field initialisers run afterwards and overwrite what was loaded
+	public void reloadOwnSerialisation(String fullSerial) {
+		String serial = fullSerial.substring(deserialisationSkipIndex);
+		
+		String ourPartLengthStr = serial.split(",")[0];
+		int ourPartLength = Integer.parseInt(ourPartLengthStr);
+		
+		serial = serial.substring(ourPartLengthStr.length() + 1);
+		reloadOnDeserialisation(serial.substring(0, ourPartLength));
+	}
+	
 	public void deserialiseTree(String fullSerial) {
 		String serial = fullSerial.substring(deserialisationSkipIndex);
 				
@@ -242,12 +260,18 @@ public abstract class DrawObject {
 	
 	public abstract RightClickMenu getRightClickMenu(Econogram e, DrawObject o);
 	public abstract String getSerialisation();
-	public abstract void addDrawPrimativesPreChild(Coordinate base, List<DrawPrimative> primatives);
-	public abstract void addDrawPrimativesPostChild(Coordinate base, List<DrawPrimative> primatives);
+	public abstract void addDrawPrimativesPreChild(RenderContext context, Coordinate base, List<DrawPrimative> primatives);
+	public abstract void addDrawPrimativesPostChild(RenderContext context, Coordinate base, List<DrawPrimative> primatives);
 	public abstract String getName();
 	public abstract List<PropertyEntry> getPropertiesPanelLayout();
 	public abstract void updateProperty(PropertyEntry property);
 	
+	//the properties panel can keep its existing entries instead of the ones getPropertiesPanelLayout() just made, so this is
+	//given each entry that is actually on screen, letting objects that hold on to their entries point at the right ones
+	public void propertyEntryRebound(PropertyEntry entry) {
+		
+	}
+	
 	protected int uniqueID;
 	
 	public int getUniqueID() {
@@ -261,6 +285,10 @@ public abstract class DrawObject {
 	}
 	
 	public void markSelected(boolean state) {
+		//the selection colour is baked into whatever has been drawn, so it needs redoing
+		if (selected != state) {
+			markRenderDirty();
+		}
 		selected = state;
 	}
 	
@@ -273,15 +301,17 @@ public abstract class DrawObject {
 			return canvasParent;
 
 		} else if (parent != null) {
-			parent.getCanvasParent();
+			return parent.getCanvasParent();
 		}
 		
 		return null;
 	}
 	
 	public void update() {
+		markRenderDirty();
+		
 		if (canvasParent != null) {
-			canvasParent.repaint();
+			canvasParent.repaintChangedObjects();
 
 		} else if (parent != null) {
 			parent.update();
@@ -307,6 +337,9 @@ public abstract class DrawObject {
 		} else {
 			assert false;
 		}
+		
+		//it might be coming back after being deleted with its old render still cached, which would never say where it is
+		child.markRenderDirty();
 	}
 	
 	public Coordinate getAbsolutePosition() {
@@ -317,25 +350,177 @@ public abstract class DrawObject {
 		}
 	}
 		
-	public List<DrawPrimative> getRender(Coordinate base) {
+	//retained display list - getRender() hands back the same primatives until something marks us dirty,
+	//or until we get asked to render at a different position, or for a context that renders differently (e.g. another zoom)
+	protected List<DrawPrimative> cachedRender = null;
+	protected boolean renderDirty = true;
+	
+	//the part of the render that we added ourselves (rather than our children), and whether we've been marked dirty
+	//since it was worked out. between them the canvas can tell which bits of the screen actually need repainting
+	protected Rectangle2D.Double ownRenderBounds = null;
+	protected boolean ownRenderChanged = true;
+	
+	//where our children's primatives are in the cached render. everything before them was added by us before the
+	//children were drawn, and everything after them by us afterwards
+	int cachedFirstChildPrimative;
+	int cachedLastChildPrimative;
+	double cachedRenderBaseX;
+	double cachedRenderBaseY;
+	RenderContext cachedRenderContext;
+	int cachedRenderGeneration;
+	
+	//worked out whenever the cached render is rebuilt. renderBounds is for culling, whereas the extents
+	//are the furthest right/bottom anything reaches, which is what the canvas uses for its used size
+	protected Rectangle2D.Double renderBounds = null;
+	double renderExtentRight;
+	double renderExtentBottom;
+	
+	public Rectangle2D.Double getRenderBounds() {
+		return renderBounds;
+	}
+	
+	protected void calculateRenderBounds(List<DrawPrimative> primatives) {
+		renderBounds = null;
+		renderExtentRight = Double.NEGATIVE_INFINITY;
+		renderExtentBottom = Double.NEGATIVE_INFINITY;
+		
+		for (DrawPrimative primative : primatives) {
+			if (renderBounds == null) {
+				renderBounds = new Rectangle2D.Double();
+				renderBounds.setRect(primative.getBounds());
+			} else {
+				renderBounds.add(primative.getBounds());
+			}
+			
+			if (primative.getX() + primative.getWidth() > renderExtentRight) {
+				renderExtentRight = primative.getX() + primative.getWidth();
+			}
+			if (primative.getY() + primative.getHeight() > renderExtentBottom) {
+				renderExtentBottom = primative.getY() + primative.getHeight();
+			}
+		}
+	}
+	
+	//whether two boxes are the same, give or take rounding errors (e.g. from positions that get worked out every render)
+	static boolean sameBounds(Rectangle2D a, Rectangle2D b) {
+		if (a == null || b == null) {
+			return a == b;
+		}
+		
+		final double tolerance = 1e-9;
+		return Math.abs(a.getX() - b.getX()) < tolerance && Math.abs(a.getY() - b.getY()) < tolerance &&
+			   Math.abs(a.getWidth() - b.getWidth()) < tolerance && Math.abs(a.getHeight() - b.getHeight()) < tolerance;
+	}
+	
+	static Rectangle2D.Double calculateOwnRenderBounds(List<DrawPrimative> primatives, int firstChildPrimative, int lastChildPrimative) {
+		Rectangle2D.Double bounds = null;
+		
+		for (int i = 0; i < primatives.size(); ++i) {
+			if (i >= firstChildPrimative && i < lastChildPrimative) {
+				continue;
+			}
+			
+			if (bounds == null) {
+				bounds = new Rectangle2D.Double();
+				bounds.setRect(primatives.get(i).getBounds());
+			} else {
+				bounds.add(primatives.get(i).getBounds());
+			}
+		}
+		
+		return bounds;
+	}
+	
+	public void markRenderDirty() {
+		//our children are positioned (and sometimes sized) based on us, and our ancestors' cached lists contain our primatives
+		markSubtreeRenderDirty();
+		
+		for (DrawObject p = parent; p != null; p = p.parent) {
+			p.renderDirty = true;
+		}
+	}
+	
+	//adding or taking away a child doesn't move or change any of the others, so only we (and whatever we're in) need
+	//rendering again, rather than everything else underneath us
+	void markChildrenChanged() {
+		for (DrawObject p = this; p != null; p = p.parent) {
+			p.renderDirty = true;
+		}
+	}
+	
+	protected void markSubtreeRenderDirty() {
+		renderDirty = true;
+		ownRenderChanged = true;
+		
+		for (DrawObject child : children) {
+			child.markSubtreeRenderDirty();
+		}
+	}
+	
+	protected boolean isRenderCacheValid(RenderContext context, Coordinate base) {
+		Canvas canvas = getCanvasParent();
+		
+		if (renderDirty || cachedRender == null || canvas == null) {
+			return false;
+		}
+		
+		return cachedRenderBaseX == base.x && cachedRenderBaseY == base.y && 
+			   context.rendersLike(cachedRenderContext) && cachedRenderGeneration == canvas.renderGeneration;
+	}
+	
+	//the returned list is shared with the cache, so callers must copy it rather than modify it. the context's graphics
+	//aren't used (the primatives get drawn later, with whatever context they're being drawn with)
+	public List<DrawPrimative> getRender(RenderContext context, Coordinate base) {
+		if (isRenderCacheValid(context, base)) {
+			return cachedRender;
+		}
+		
+		//cleared before rendering, so anything that marks us dirty during the render gets picked up on the next one
+		renderDirty = false;
+		boolean changed = ownRenderChanged;
+		ownRenderChanged = false;
+		
 		List<DrawPrimative> primatives = new ArrayList<DrawPrimative>();
 		
-		addDrawPrimativesPreChild(base, primatives);
+		addDrawPrimativesPreChild(context, base, primatives);
 
+		int firstChildPrimative = primatives.size();
 		for (DrawObject child : children) {
-			primatives.addAll(child.getRender(new Coordinate(base, child.relativePosition)));
+			primatives.addAll(child.getRender(context, new Coordinate(base, child.relativePosition)));
 		}
+		int lastChildPrimative = primatives.size();
 		
-		if (parent != null && getCanvasParent() != null && getCanvasParent().isShowingParentGuides()) {
+		if (parent != null && context.showingParentGuides) {
 			PrimativeGuideLine pl = new PrimativeGuideLine(this, parent.getAbsolutePosition(), base);
-			pl.width = 1.0 / getCanvasParent().zoomPanSettings.zoom;
+			pl.width = 1.0 / context.zoom;
 			pl.colour = 0xC00000;
 			pl.length = 6.0;
 			primatives.add(pl);
 		}
 		
-		addDrawPrimativesPostChild(base, primatives);
+		addDrawPrimativesPostChild(context, base, primatives);
 
+		Canvas canvas = getCanvasParent();
+		if (canvas != null) {
+			cachedRenderBaseX = base.x;
+			cachedRenderBaseY = base.y;
+			cachedRenderContext = context;
+			cachedRenderGeneration = canvas.renderGeneration;
+		}
+		cachedRender = primatives;
+		cachedFirstChildPrimative = firstChildPrimative;
+		cachedLastChildPrimative = lastChildPrimative;
+		calculateRenderBounds(primatives);
+		
+		//if we've only been re-rendered because one of our children changed (or the zoom did), our own primatives
+		//probably look just like they did before, so they only need repainting if they've moved
+		Rectangle2D.Double oldOwnBounds = ownRenderBounds;
+		ownRenderBounds = calculateOwnRenderBounds(primatives, firstChildPrimative, lastChildPrimative);
+		if (canvas != null && (changed || !sameBounds(oldOwnBounds, ownRenderBounds))) {
+			canvas.addDirtyRegion(oldOwnBounds);
+			canvas.addDirtyRegion(ownRenderBounds);
+		}
+		
 		return primatives;
 	}
 	
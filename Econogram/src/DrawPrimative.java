@@ -1,5 +1,7 @@
 
 import java.awt.*;
+import java.awt.geom.Rectangle2D;
+import java.io.IOException;
 
 public abstract class DrawPrimative {
 	protected DrawObject parent;
@@ -20,9 +22,48 @@ public abstract class DrawPrimative {
 		return getWidth();
 	}
 	
+	//document-space box covering everything draw() touches, used for culling. unlike getX()/getWidth() etc.
+	//(which are used for hit testing) this is always in document units and includes things like guide lines.
+	//primatives get thrown away and rebuilt when anything about them changes, so it only needs working out once
+	private Rectangle2D.Double bounds = null;
+	
+	public Rectangle2D.Double getBounds() {
+		if (bounds == null) {
+			bounds = calculateBounds();
+		}
+		return bounds;
+	}
+	
+	protected Rectangle2D.Double calculateBounds() {
+		return new Rectangle2D.Double(getX(), getY(), getWidth(), getHeight());
+	}
+	
+	//how far the point is from the primative for hit testing purposes (in document units), negative if it's inside
+	public double distanceTo(double x, double y) {
+		double left = getX();
+		double top = getY();
+		double right = left + getWidthGivenPosition(x, y);
+		double bottom = top + getHeightGivenPosition(x, y);
+		
+		double dx = Math.max(left - x, x - right);
+		double dy = Math.max(top - y, y - bottom);
+		
+		if (dx <= 0 && dy <= 0) {
+			return Math.max(dx, dy);
+		}
+		
+		dx = Math.max(dx, 0);
+		dy = Math.max(dy, 0);
+		return Math.sqrt(dx * dx + dy * dy);
+	}
+	
 	abstract public double getX();
 	abstract public double getY();
-	abstract public void draw(Graphics g, ZoomPanSettings settings);
+	abstract public void draw(RenderContext context);
+
+	//the same as draw(), but to a vector format in document units instead of to the screen
+	abstract public void write(VectorWriter out) throws IOException;
+
 	abstract public double getWidth();
 	abstract public double getHeight();
 }
@@ -26,6 +26,7 @@ public class Econogram implements MouseWheelListener, MouseListener, MouseMotion
 	boolean unsavedChanges;
 	
 	ActionManager actionManager;
+	FrameScheduler frameScheduler;
 	
 	double mouseDownX;
 	double mouseDownY;
@@ -52,6 +53,9 @@ public class Econogram implements MouseWheelListener, MouseListener, MouseMotion
 	JMenuItem showGridlines;
 	JMenuItem showPrimaryHint;
 	JMenuItem showHideParentGuides;
+	JMenuItem toggleDraftQuality;
+	JMenuItem toggleDraftWhileMoving;
+	JMenuItem toggleFrameRateCap;
 	JSlider zoomSlider;
 	JMenu dummyMenu;
 	
@@ -939,7 +943,7 @@ public class Econogram implements MouseWheelListener, MouseListener, MouseMotion
 			PrimaryLine line1 = (PrimaryLine) children.get(children.size() - 1);
 			PrimaryLine line2 = (PrimaryLine) children.get(children.size() - 2);
 			
-			if (line1.intersection(line2) != null && line2.intersection(line1) != null) {
+			if (line1.cachedIntersection(line2) != null && line2.cachedIntersection(line1) != null) {
 				return true;
 			}
 			
@@ -962,7 +966,7 @@ public class Econogram implements MouseWheelListener, MouseListener, MouseMotion
 						PrimaryLine line1 = (PrimaryLine) children.get(children.size() - 1);
 						PrimaryLine line2 = (PrimaryLine) children.get(children.size() - 2);
 						
-						if (line1.intersection(line2) != null && line2.intersection(line1) != null) {
+						if (line1.cachedIntersection(line2) != null && line2.cachedIntersection(line1) != null) {
 							addedChild = new CalculatedPoint(line1, line2, primaryAxis);
 							primaryAxis.addChild(addedChild);
 							canvas.repaint();
@@ -1130,6 +1134,91 @@ public class Econogram implements MouseWheelListener, MouseListener, MouseMotion
 		}
 	};
 	
+	String getDraftQualityText() {
+		return canvas.getFullQuality() == RenderQuality.FULL ? "Draw in draft quality" : "Draw in full quality";
+	}
+	
+	String getDraftWhileMovingText() {
+		return canvas.getIdleDelay() > 0 ? "Don't use draft quality while moving" : "Use draft quality while moving";
+	}
+	
+	String getFrameRateCapText() {
+		return frameScheduler.getFrameRateCap() > 0 ? "Don't limit the frame rate" : String.format("Limit the frame rate to %d fps", FrameScheduler.DEFAULT_FRAMES_PER_SECOND);
+	}
+	
+	//each of these swaps between the two settings, so undoing them is just doing them again
+	final ActionFactory TOGGLE_DRAFT_QUALITY = new ActionFactory() {
+		@Override
+		public Action build() {
+			return new Action() {				
+				@Override
+				public boolean execute() {
+					canvas.setFullQuality(canvas.getFullQuality() == RenderQuality.FULL ? RenderQuality.DRAFT : RenderQuality.FULL);
+					toggleDraftQuality.setText(getDraftQualityText());
+					return true;
+				}
+
+				@Override
+				public boolean undo() {
+					return execute();
+				}
+				
+				@Override
+				public boolean redo() {
+					return execute();
+				}
+			};
+		}
+	};
+	
+	final ActionFactory TOGGLE_DRAFT_WHILE_MOVING = new ActionFactory() {
+		@Override
+		public Action build() {
+			return new Action() {				
+				@Override
+				public boolean execute() {
+					canvas.setIdleDelay(canvas.getIdleDelay() > 0 ? 0 : Canvas.DEFAULT_IDLE_DELAY);
+					toggleDraftWhileMoving.setText(getDraftWhileMovingText());
+					return true;
+				}
+
+				@Override
+				public boolean undo() {
+					return execute();
+				}
+				
+				@Override
+				public boolean redo() {
+					return execute();
+				}
+			};
+		}
+	};
+	
+	final ActionFactory TOGGLE_FRAME_RATE_CAP = new ActionFactory() {
+		@Override
+		public Action build() {
+			return new Action() {				
+				@Override
+				public boolean execute() {
+					frameScheduler.setFrameRateCap(frameScheduler.getFrameRateCap() > 0 ? 0 : FrameScheduler.DEFAULT_FRAMES_PER_SECOND);
+					toggleFrameRateCap.setText(getFrameRateCapText());
+					return true;
+				}
+
+				@Override
+				public boolean undo() {
+					return execute();
+				}
+				
+				@Override
+				public boolean redo() {
+					return execute();
+				}
+			};
+		}
+	};
+	
 	final ActionFactory SHOW_GRIDLINES = new ActionFactory() {
 		@Override
 		public Action build() {
@@ -1229,7 +1318,8 @@ public class Econogram implements MouseWheelListener, MouseListener, MouseMotion
 	
 	static final String OPEN_FILE_ERROR_NEWER_VERSION = "ERROR_NEWER_VERSION";
 		
-	String decompressSerialisedText(String text) {
+	//doesn't need anything from the window, so files can be loaded without one (e.g. by BatchConverter)
+	static String decompressSerialisedText(String text) {
 		if (!text.startsWith("Econogram! ")) {
 			return "";
 		}
@@ -1256,25 +1346,100 @@ public class Econogram implements MouseWheelListener, MouseListener, MouseMotion
 		fileChooser.setDialogTitle("Export...");
 		
 		FileNameExtensionFilter filter = new FileNameExtensionFilter("PNG Image (*.png)", "png");
+		FileNameExtensionFilter svgFilter = new FileNameExtensionFilter("SVG Image (*.svg)", "svg");
+		FileNameExtensionFilter pdfFilter = new FileNameExtensionFilter("PDF Document (*.pdf)", "pdf");
         fileChooser.addChoosableFileFilter(filter);
+        fileChooser.addChoosableFileFilter(svgFilter);
+        fileChooser.addChoosableFileFilter(pdfFilter);
+        fileChooser.setFileFilter(filter);
         fileChooser.setAcceptAllFileFilterUsed(false);		
 		if (fileChooser.showSaveDialog(frame) == JFileChooser.APPROVE_OPTION) {
 
 			String path = fileChooser.getSelectedFile().getAbsolutePath();
+			String lowerPath = path.toLowerCase();
+			
+			//a name typed with an extension wins over whichever filter happened to be picked
+			boolean svg = lowerPath.endsWith(".svg") || (fileChooser.getFileFilter() == svgFilter && !lowerPath.endsWith(".png") && !lowerPath.endsWith(".pdf"));
+			boolean pdf = lowerPath.endsWith(".pdf") || (fileChooser.getFileFilter() == pdfFilter && !lowerPath.endsWith(".png") && !lowerPath.endsWith(".svg"));
+			
+			if (svg || pdf) {
+				String extension = svg ? ".svg" : ".pdf";
+				if (!lowerPath.endsWith(extension)) {
+					path += extension;
+				}
+				
+				//the same as below, but there's no size to ask for
+				DocumentSnapshot snapshot = new DocumentSnapshot(canvas, BandedExporter.DEFAULT_ZOOM);
+				String exportPath = path;
+				new Thread(new Runnable() {
+					@Override
+					public void run() {
+						try {
+							if (svg) {
+								Canvas.exportSvg(snapshot, exportPath);
+							} else {
+								Canvas.exportPdf(snapshot, exportPath);
+							}
+			
+						} catch (Exception e) {
+							reportExportFailure(exportPath, e);
+						}
+					}
+				}, "Export").start();
+				return;
+			}
 
 			if (!path.toLowerCase().endsWith(".png")) {
 				path += ".png";
 			}		
 			
-			try {
-				canvas.export(path);
-
-			} catch (IOException e) {
-				e.printStackTrace();
+			//the image is streamed out a strip at a time, so it can be far bigger than the default without running out of memory
+			int defaultWidth = (int) (canvas.getUsedWidth() * BandedExporter.DEFAULT_ZOOM);
+			JSpinner widthSpinner = new JSpinner(new SpinnerNumberModel(defaultWidth, 16, 200000, 100));
+			JSpinner dpiSpinner = new JSpinner(new SpinnerNumberModel(BandedExporter.DEFAULT_ZOOM * BandedExporter.DOCUMENT_UNITS_PER_INCH, 1.0, 10000.0, 12.0));
+			
+			JPanel sizePanel = new JPanel(new GridLayout(2, 2, 8, 4));
+			sizePanel.add(new JLabel("Width (pixels):"));
+			sizePanel.add(widthSpinner);
+			sizePanel.add(new JLabel("Resolution (DPI):"));
+			sizePanel.add(dpiSpinner);
+			
+			if (JOptionPane.showConfirmDialog(frame, sizePanel, "Export", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE) != JOptionPane.OK_OPTION) {
+				return;
 			}
+			
+			double zoom = BandedExporter.zoomForWidth(canvas, ((Number) widthSpinner.getValue()).intValue());
+			double dpi = ((Number) dpiSpinner.getValue()).doubleValue();
+			
+			//the copy to export from has to be taken here, but drawing and saving it can be left running in the background
+			BandedExporter exporter = new BandedExporter(canvas, zoom);
+			String exportPath = path;
+			new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						Canvas.export(exporter, exportPath, dpi);
+		
+					} catch (Exception e) {
+						reportExportFailure(exportPath, e);
+					}
+				}
+			}, "Export").start();
 		}
 	}
 	
+	//called from the export thread, which has to leave showing the message to the event thread
+	void reportExportFailure(String path, Exception e) {
+		e.printStackTrace();
+		
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				JOptionPane.showMessageDialog(frame, String.format("Could not export to %s:\n%s", path, e.getMessage() != null ? e.getMessage() : e.toString()), "Export Error", JOptionPane.ERROR_MESSAGE);
+			}
+		});
+	}
+	
 	boolean save() {
 		if (filepath == null) {
 			return saveAs();
@@ -1495,6 +1660,35 @@ public class Econogram implements MouseWheelListener, MouseListener, MouseMotion
 		});
 		viewMenu.add(showPrimaryHint);
 		
+		viewMenu.add(new JSeparator());
+		
+		toggleDraftQuality = new JMenuItem(getDraftQualityText());
+		toggleDraftQuality.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				actionManager.add(TOGGLE_DRAFT_QUALITY.build());
+			}
+		});
+		viewMenu.add(toggleDraftQuality);
+		
+		toggleDraftWhileMoving = new JMenuItem(getDraftWhileMovingText());
+		toggleDraftWhileMoving.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				actionManager.add(TOGGLE_DRAFT_WHILE_MOVING.build());
+			}
+		});
+		viewMenu.add(toggleDraftWhileMoving);
+		
+		toggleFrameRateCap = new JMenuItem(getFrameRateCapText());
+		toggleFrameRateCap.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				actionManager.add(TOGGLE_FRAME_RATE_CAP.build());
+			}
+		});
+		viewMenu.add(toggleFrameRateCap);
+		
 		//
 	}
 	
@@ -1599,6 +1793,7 @@ public class Econogram implements MouseWheelListener, MouseListener, MouseMotion
 
 		} else {
 			primaryAxis = a;
+			canvas.invalidateRenderCache();
 			canvas.repaint();
 		}
 	}
@@ -2097,6 +2292,7 @@ public class Econogram implements MouseWheelListener, MouseListener, MouseMotion
 	
 	Econogram(JFrame inFrame, Canvas inCanvas) {
 		actionManager = new ActionManager(this);
+		frameScheduler = new FrameScheduler(this);
 				
 		try {
 			UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
@@ -2299,6 +2495,7 @@ public class Econogram implements MouseWheelListener, MouseListener, MouseMotion
 	public void mouseWheelMoved(MouseWheelEvent e) {		
 		mouseMoveX = e.getX();
 		mouseMoveY = e.getY();
+		canvas.interactionHappened();
 		
 		int notches = e.getWheelRotation();
 
@@ -2339,6 +2536,8 @@ public class Econogram implements MouseWheelListener, MouseListener, MouseMotion
 	
 	@Override
 	public void mousePressed(MouseEvent e) {
+		frameScheduler.flush();
+		
 		wantFenceAddedOnMouseLift = false;
 		addedFenceOnMouseDragYet = false;
 		mouseDragEventsSinceClick = 0;
@@ -2400,6 +2599,8 @@ public class Econogram implements MouseWheelListener, MouseListener, MouseMotion
 	
 	@Override
 	public void mouseReleased(MouseEvent e) {
+		frameScheduler.flush();
+		
 		mouseMoveX = e.getX();
 		mouseMoveY = e.getY();
 		lineShiftMode = false;
@@ -2423,6 +2624,17 @@ public class Econogram implements MouseWheelListener, MouseListener, MouseMotion
 		mouseMoveY = e.getY();
 	}
 
+	//moves the canvas (and the scrollbars to match) so the given point is at the top left
+	public void applyPan(double x, double y) {
+		double posx = (x * ((double)(hzScrollBar.getMaximum() - hzScrollBar.getMinimum()))) / canvas.getUsedWidth() / canvas.getZoom();
+		double posy = (y * ((double)(vtScrollBar.getMaximum() - vtScrollBar.getMinimum()))) / canvas.getUsedHeight() / canvas.getZoom();
+		
+		hzScrollBar.setValue((int) posx);
+		vtScrollBar.setValue((int) posy);
+
+		canvas.setPan(x, y);
+	}
+
 	@Override
 	public void mouseDragged(MouseEvent e) {	
 		mouseDragEventsSinceClick++;
@@ -2446,13 +2658,7 @@ public class Econogram implements MouseWheelListener, MouseListener, MouseMotion
 		
 			canvas.setCursor(new Cursor(Cursor.HAND_CURSOR));
 
-			double posx = ((panOnMouseDownX - e.getX() + mouseDownX) * ((double)(hzScrollBar.getMaximum() - hzScrollBar.getMinimum()))) / canvas.getUsedWidth() / canvas.getZoom();
-			double posy = ((panOnMouseDownY - e.getY() + mouseDownY) * ((double)(vtScrollBar.getMaximum() - vtScrollBar.getMinimum()))) / canvas.getUsedHeight() / canvas.getZoom();
-			
-			hzScrollBar.setValue((int) posx);
-			vtScrollBar.setValue((int) posy);
-
-			canvas.setPan(panOnMouseDownX - e.getX() + mouseDownX, panOnMouseDownY - e.getY() + mouseDownY);
+			frameScheduler.queuePan(panOnMouseDownX - e.getX() + mouseDownX, panOnMouseDownY - e.getY() + mouseDownY);
 		
 		} else {
 			if (draggingObject != null && draggingObject.canDrag) {
@@ -2489,8 +2695,7 @@ public class Econogram implements MouseWheelListener, MouseListener, MouseMotion
 
 				}
 				
-				draggingObject.mouseDragging(deltaX, deltaY);
-				propertiesPanel.regenerate();
+				frameScheduler.queueDrag(draggingObject, deltaX, deltaY);
 				
 				if (!addedFenceOnMouseDragYet || mouseDragEventsSinceClick % 24 == 16) {
 					actionManager.addFenceBoundary();
@@ -0,0 +1,112 @@
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+import javax.swing.Timer;
+
+//paces drags and pans to the screen's frame rate. mice can send far more events than can be drawn, so the changes that
+//come in between frames get merged together, then applied all at once along with a single properties panel refresh
+//(which also means only one repaint, as the canvas coalesces those itself)
+public class FrameScheduler {
+	static final int DEFAULT_FRAMES_PER_SECOND = 60;
+
+	Econogram econogram;
+	Timer timer;
+	long nanosPerFrame;
+	long lastFrameTime = 0;
+
+	//what's happened since the last frame. drags add up, whereas only the latest pan matters
+	DrawObject dragObject = null;
+	double dragX;
+	double dragY;
+	boolean panPending = false;
+	double panX;
+	double panY;
+
+	public FrameScheduler(Econogram econogram) {
+		this.econogram = econogram;
+
+		timer = new Timer(0, new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				runFrame();
+			}
+		});
+		timer.setRepeats(false);
+
+		setFrameRateCap(DEFAULT_FRAMES_PER_SECOND);
+	}
+
+	//0 turns the cap off, so every event gets applied straight away like it used to
+	public void setFrameRateCap(int framesPerSecond) {
+		nanosPerFrame = framesPerSecond <= 0 ? 0 : 1000000000L / framesPerSecond;
+	}
+
+	public int getFrameRateCap() {
+		return nanosPerFrame == 0 ? 0 : (int) (1000000000L / nanosPerFrame);
+	}
+
+	public void queueDrag(DrawObject obj, double deltaX, double deltaY) {
+		//a different object can't be merged with what's there, so that has to be done first
+		if (dragObject != null && dragObject != obj) {
+			flush();
+		}
+
+		dragObject = obj;
+		dragX += deltaX;
+		dragY += deltaY;
+		eventQueued();
+	}
+
+	public void queuePan(double x, double y) {
+		panPending = true;
+		panX = x;
+		panY = y;
+		eventQueued();
+	}
+
+	void eventQueued() {
+		if (timer.isRunning()) {
+			return;
+		}
+
+		//if it's been at least a frame since the last one there's no point waiting
+		long wait = lastFrameTime + nanosPerFrame - System.nanoTime();
+		if (wait <= 0) {
+			runFrame();
+		} else {
+			timer.setInitialDelay((int) Math.max(1, wait / 1000000));
+			timer.restart();
+		}
+	}
+
+	//applies anything that is still waiting for the next frame (e.g. when the mouse gets let go)
+	public void flush() {
+		if (dragObject != null || panPending) {
+			runFrame();
+		}
+	}
+
+	void runFrame() {
+		timer.stop();
+		lastFrameTime = System.nanoTime();
+
+		if (dragObject == null && !panPending) {
+			return;
+		}
+		econogram.canvas.interactionHappened();
+
+		if (panPending) {
+			panPending = false;
+			econogram.applyPan(panX, panY);
+		}
+
+		if (dragObject != null) {
+			DrawObject obj = dragObject;
+			dragObject = null;
+			obj.mouseDragging(dragX, dragY);
+			dragX = 0;
+			dragY = 0;
+			econogram.propertiesPanel.regenerate();
+		}
+	}
+}
@@ -0,0 +1,116 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Paint;
+import java.awt.Rectangle;
+import java.awt.TexturePaint;
+import java.awt.image.BufferedImage;
+
+//the background grid, drawn as a repeating texture that only gets redone when the zoom or colours change
+public class GridLayer {
+	static final double CELL_SIZE = 12.0;		//document units between lines
+	static final int MAJOR_EVERY = 4;			//every 4th line is a major one
+	static final int EXTENT = 5000;				//pixels covered, starting at the document's origin
+	static final int MAX_TEXTURE_SIZE = 512;
+
+	double cachedZoom = -1;
+	int cachedMajorColour = -1;
+	int cachedMinorColour = -1;
+
+	Color majorColour;
+	Color minorColour;
+
+	//null if the lines never line up with whole pixels (within MAX_TEXTURE_SIZE) at this zoom, in which case the
+	//visible lines get drawn one by one instead
+	BufferedImage texture;
+
+	void rebuild(double zoom, int major, int minor) {
+		cachedZoom = zoom;
+		cachedMajorColour = major;
+		cachedMinorColour = minor;
+		majorColour = new Color(major);
+		minorColour = new Color(minor);
+		texture = null;
+
+		//the texture has to repeat after a whole number of major cells that is also a whole number of pixels,
+		//otherwise the lines would slowly drift away from where they are in the document
+		for (int cells = MAJOR_EVERY; cells * CELL_SIZE * zoom <= MAX_TEXTURE_SIZE; cells += MAJOR_EVERY) {
+			double size = cells * CELL_SIZE * zoom;
+			if (Math.abs(size - Math.round(size)) > 1e-6) {
+				continue;
+			}
+
+			int pixels = (int) Math.round(size);
+			texture = new BufferedImage(pixels, pixels, BufferedImage.TYPE_INT_RGB);
+
+			//the grid always goes straight onto the white background, so it may as well be opaque (which is quicker to copy)
+			Graphics2D g = texture.createGraphics();
+			g.setColor(Color.WHITE);
+			g.fillRect(0, 0, pixels, pixels);
+			g.dispose();
+
+			//minor lines first, so the major ones win where they cross
+			for (int pass = 0; pass < 2; ++pass) {
+				for (int i = 0; i < cells; ++i) {
+					boolean isMajor = (i % MAJOR_EVERY) == 0;
+					if (isMajor != (pass == 1)) {
+						continue;
+					}
+
+					int rgb = (isMajor ? majorColour : minorColour).getRGB();
+					int val = (int) (i * CELL_SIZE * zoom);
+					for (int j = 0; j < pixels; ++j) {
+						texture.setRGB(val, j, rgb);
+						texture.setRGB(j, val, rgb);
+					}
+				}
+			}
+			break;
+		}
+	}
+
+	public void paint(Graphics2D g, Rectangle clip, ZoomPanSettings settings, int major, int minor) {
+		if (settings.zoom != cachedZoom || major != cachedMajorColour || minor != cachedMinorColour) {
+			rebuild(settings.zoom, major, minor);
+		}
+
+		int xshift = (int) -settings.x;
+		int yshift = (int) -settings.y;
+
+		//only the part of the grid that is actually on screen
+		Rectangle area = new Rectangle(xshift, yshift, EXTENT + 1, EXTENT + 1);
+		if (clip != null) {
+			area = area.intersection(clip);
+		}
+		if (area.isEmpty()) {
+			return;
+		}
+
+		if (texture != null) {
+			Paint oldPaint = g.getPaint();
+			g.setPaint(new TexturePaint(texture, new Rectangle(xshift, yshift, texture.getWidth(), texture.getHeight())));
+			g.fillRect(area.x, area.y, area.width, area.height);
+			g.setPaint(oldPaint);
+			return;
+		}
+
+		double spacing = CELL_SIZE * settings.zoom;
+		int first = Math.max(0, (int) Math.floor((Math.min(area.x - xshift, area.y - yshift) - 1) / spacing));
+		int last = (int) Math.ceil((Math.max(area.x + area.width - xshift, area.y + area.height - yshift) + 1) / spacing);
+
+		for (int pass = 0; pass < 2; ++pass) {
+			g.setColor(pass == 0 ? minorColour : majorColour);
+			for (int i = first; i <= last; ++i) {
+				if (((i % MAJOR_EVERY) == 0) != (pass == 1)) {
+					continue;
+				}
+
+				int val = (int) (i * spacing);
+				if (val > EXTENT) {
+					break;
+				}
+				g.drawLine(area.x, yshift + val, area.x + area.width, yshift + val);
+				g.drawLine(xshift + val, area.y, xshift + val, area.y + area.height);
+			}
+		}
+	}
+}
@@ -0,0 +1,114 @@
+import java.util.ArrayList;
+import java.util.List;
+
+//part of a circle, for curves that would otherwise have to be broken down into lots of short IntersectableLines.
+//angles are in radians from the +x direction, going towards +y (i.e. clockwise on screen), and startAngle < endAngle
+public class IntersectableArc {
+	static final double EPSILON = 1e-9;
+
+	Coordinate centre;
+	double radius;
+	double startAngle;
+	double endAngle;
+
+	IntersectableArc(Coordinate centre, double radius, double startAngle, double endAngle) {
+		this.centre = centre;
+		this.radius = radius;
+		this.startAngle = startAngle;
+		this.endAngle = endAngle;
+	}
+
+	Coordinate getPoint(double angle) {
+		return new Coordinate(centre.x + radius * Math.cos(angle), centre.y + radius * Math.sin(angle));
+	}
+
+	//how far round from the start of the arc the point is, between 0 and 2 pi
+	double angleFromStart(double x, double y) {
+		double angle = Math.atan2(y - centre.y, x - centre.x) - startAngle;
+		angle %= 2 * Math.PI;
+		if (angle < 0) {
+			angle += 2 * Math.PI;
+		}
+		//just before the start counts as the start
+		if (angle > 2 * Math.PI - EPSILON) {
+			angle = 0;
+		}
+		return angle;
+	}
+
+	boolean covers(Coordinate c) {
+		return angleFromStart(c.x, c.y) <= endAngle - startAngle + EPSILON;
+	}
+
+	//of the points that are on the arc, the one nearest to its start (or null if there aren't any)
+	Coordinate nearestToStart(List<Coordinate> candidates) {
+		Coordinate nearest = null;
+		double nearestAngle = Double.MAX_VALUE;
+
+		for (Coordinate c : candidates) {
+			if (!covers(c)) {
+				continue;
+			}
+			double angle = angleFromStart(c.x, c.y);
+			if (angle < nearestAngle) {
+				nearest = c;
+				nearestAngle = angle;
+			}
+		}
+
+		return nearest;
+	}
+
+	//where the segment crosses the arc, or null if it doesn't
+	Coordinate intersects(IntersectableLine line) {
+		double dx = line.p2.x - line.p1.x;
+		double dy = line.p2.y - line.p1.y;
+		double fx = line.p1.x - centre.x;
+		double fy = line.p1.y - centre.y;
+
+		double a = dx * dx + dy * dy;
+		double b = 2 * (fx * dx + fy * dy);
+		double c = fx * fx + fy * fy - radius * radius;
+		double discriminant = b * b - 4 * a * c;
+
+		if (a == 0 || discriminant < 0) {
+			return null;
+		}
+
+		List<Coordinate> candidates = new ArrayList<Coordinate>();
+		double root = Math.sqrt(discriminant);
+		for (double s : new double[] {(-b - root) / (2 * a), (-b + root) / (2 * a)}) {
+			if (s >= -EPSILON && s <= 1 + EPSILON) {
+				candidates.add(new Coordinate(line.p1.x + s * dx, line.p1.y + s * dy));
+			}
+		}
+
+		return nearestToStart(candidates);
+	}
+
+	//where the two arcs cross, or null if they don't (or are parts of the same circle)
+	Coordinate intersects(IntersectableArc o) {
+		double dx = o.centre.x - centre.x;
+		double dy = o.centre.y - centre.y;
+		double d = Math.sqrt(dx * dx + dy * dy);
+
+		if (d == 0 || d > radius + o.radius || d < Math.abs(radius - o.radius)) {
+			return null;
+		}
+
+		double along = (radius * radius - o.radius * o.radius + d * d) / (2 * d);
+		double across = Math.sqrt(Math.max(0, radius * radius - along * along));
+		double midX = centre.x + along * dx / d;
+		double midY = centre.y + along * dy / d;
+
+		List<Coordinate> candidates = new ArrayList<Coordinate>();
+		for (int side = -1; side <= 1; side += 2) {
+			Coordinate c = new Coordinate(midX - side * across * dy / d, midY + side * across * dx / d);
+			if (o.covers(c)) {
+				candidates.add(c);
+			}
+		}
+
+		return nearestToStart(candidates);
+	}
+}
@@ -62,4 +62,26 @@ public class IntersectableLine {
 		double ix = (o.getIntercept() - getIntercept()) / (getGradient() - o.getGradient());
 		return new Coordinate(ix, ix * getGradient() + getIntercept());
 	}
+	
+	//where the two segments actually cross, or null if they don't (or are parallel). unlike intersects(), this
+	//takes notice of where both segments end
+	Coordinate intersectsWithinEnds(IntersectableLine o) {
+		double dx1 = p2.x - p1.x;
+		double dy1 = p2.y - p1.y;
+		double dx2 = o.p2.x - o.p1.x;
+		double dy2 = o.p2.y - o.p1.y;
+		
+		double denominator = dx1 * dy2 - dy1 * dx2;
+		if (Math.abs(denominator) < 1e-12) {
+			return null;
+		}
+		
+		double s = ((o.p1.x - p1.x) * dy2 - (o.p1.y - p1.y) * dx2) / denominator;
+		double t = ((o.p1.x - p1.x) * dy1 - (o.p1.y - p1.y) * dx1) / denominator;
+		if (s < -1e-9 || s > 1 + 1e-9 || t < -1e-9 || t > 1 + 1e-9) {
+			return null;
+		}
+		
+		return new Coordinate(p1.x + s * dx1, p1.y + s * dy1);
+	}
 }
@@ -5,6 +5,11 @@ import javax.swing.SwingUtilities;
 
 public class KeynesianLRAS extends PrimaryLine {
 
+	//the flat part goes this far left, and the vertical part this far up
+	static final double EXTENT = 999.0;
+	//how far apart getLineBreakdown() samples the curve
+	static final double SAMPLE_STEP = 2.0;
+
 	double sliderVal;
 	double keynesianSectionRadius = 100.0;
 	
@@ -19,7 +24,7 @@ public class KeynesianLRAS extends PrimaryLine {
 	
 	public KeynesianLRAS(String fullSerial, int uid, Canvas canvas, DrawObject parent_) {
 		super(fullSerial, uid, canvas, parent_);
-		deserialiseTree(fullSerial);
+		reloadOwnSerialisation(fullSerial);
 	}
 	
 	@Override
@@ -80,6 +85,159 @@ public class KeynesianLRAS extends PrimaryLine {
 		return l;
 	}
 
+	//the curve as three exact pieces, relative to the line's position. the corner is at (0, 0): the flat part runs left
+	//along y = 0, then a quarter circle (centred up and to the left of the corner) takes it round to the vertical part
+	//running up along x = 0. the knee starts at the vertical end, which is the order getLineBreakdown() goes in
+	IntersectableLine getFlatSection() {
+		return new IntersectableLine(new Coordinate(-EXTENT, 0), new Coordinate(-keynesianSectionRadius, 0));
+	}
+	
+	IntersectableArc getKnee() {
+		return new IntersectableArc(new Coordinate(-keynesianSectionRadius, -keynesianSectionRadius), keynesianSectionRadius, 0, Math.PI / 2);
+	}
+	
+	IntersectableLine getVerticalSection() {
+		return new IntersectableLine(new Coordinate(0, -keynesianSectionRadius), new Coordinate(0, -EXTENT));
+	}
+	
+	static IntersectableLine moved(IntersectableLine line, Coordinate by) {
+		return new IntersectableLine(new Coordinate(by, line.p1), new Coordinate(by, line.p2));
+	}
+	
+	static IntersectableArc moved(IntersectableArc arc, Coordinate by) {
+		return new IntersectableArc(new Coordinate(by, arc.centre), arc.radius, arc.startAngle, arc.endAngle);
+	}
+	
+	//where the curve crosses the other line (in our parent's coordinates), worked out from the exact pieces rather than
+	//by trying every pair of samples. where there's more than one crossing, the knee wins, then the vertical part, then
+	//the flat part. that isn't the order getLineBreakdown() has its samples in (knee, flat, vertical), but it's what going
+	//through them used to find: IntersectableLine.overlaps() turns down anything horizontal, so the flat samples never
+	//crossed anything, and the first vertical sample then gave where its (endless) line crossed
+	@Override
+	public Coordinate intersection(PrimaryLine other) {
+		IntersectableArc ourKnee = moved(getKnee(), relativePosition);
+		IntersectableLine[] ourLines = {moved(getVerticalSection(), relativePosition), moved(getFlatSection(), relativePosition)};
+		
+		if (other instanceof SupplyDemandLine) {
+			IntersectableLine theirLine = moved(((SupplyDemandLine) other).getFullLine(), other.relativePosition);
+			
+			Coordinate c = ourKnee.intersects(theirLine);
+			for (IntersectableLine ourLine : ourLines) {
+				if (c == null) {
+					c = ourLine.intersectsWithinEnds(theirLine);
+				}
+			}
+			return c;
+		}
+		
+		if (other instanceof KeynesianLRAS) {
+			KeynesianLRAS o = (KeynesianLRAS) other;
+			IntersectableArc theirKnee = moved(o.getKnee(), o.relativePosition);
+			IntersectableLine[] theirLines = {moved(o.getVerticalSection(), o.relativePosition), moved(o.getFlatSection(), o.relativePosition)};
+			
+			Coordinate c = ourKnee.intersects(theirKnee);
+			for (IntersectableLine theirLine : theirLines) {
+				if (c == null) {
+					c = ourKnee.intersects(theirLine);
+				}
+			}
+			for (IntersectableLine ourLine : ourLines) {
+				if (c == null) {
+					c = theirKnee.intersects(ourLine);
+				}
+				for (IntersectableLine theirLine : theirLines) {
+					if (c == null) {
+						c = ourLine.intersectsWithinEnds(theirLine);
+					}
+				}
+			}
+			return c;
+		}
+		
+		return super.intersection(other);
+	}
+	
+	static double clampToUnit(double v) {
+		return Math.max(-1, Math.min(1, v));
+	}
+	
+	//draws the straight parts as a polyline and the knee as an arc, each cut down to the bounds
+	@Override
+	protected void addLinePrimatives(Coordinate base, double minX, double minY, double maxX, double maxY, List<DrawPrimative> primatives) {
+		double radius = keynesianSectionRadius;
+		
+		PrimativePolyline straightParts = new PrimativePolyline(this);
+		straightParts.colour = 0x004080;
+		
+		if (minY <= 0 && maxY >= 0) {
+			double left = Math.max(minX, -EXTENT);
+			double right = Math.min(maxX, -radius);
+			if (left < right) {
+				straightParts.addSegment(new Coordinate(base.x + left, base.y), new Coordinate(base.x + right, base.y));
+			}
+		}
+		if (minX <= 0 && maxX >= 0) {
+			double top = Math.max(minY, -EXTENT);
+			double bottom = Math.min(maxY, -radius);
+			if (top < bottom) {
+				straightParts.addSegment(new Coordinate(base.x, base.y + bottom), new Coordinate(base.x, base.y + top));
+			}
+		}
+		
+		if (straightParts.getSegmentCount() != 0) {
+			primatives.add(straightParts);
+		}
+		
+		//along the knee x only ever gets smaller and y only ever gets bigger, so the part inside the bounds is one range of angles
+		double fromAngle = 0;
+		double toAngle = Math.PI / 2;
+		fromAngle = Math.max(fromAngle, Math.acos(clampToUnit((maxX + radius) / radius)));
+		toAngle = Math.min(toAngle, Math.acos(clampToUnit((minX + radius) / radius)));
+		fromAngle = Math.max(fromAngle, Math.asin(clampToUnit((minY + radius) / radius)));
+		toAngle = Math.min(toAngle, Math.asin(clampToUnit((maxY + radius) / radius)));
+		
+		if (fromAngle < toAngle) {
+			PrimativeArc knee = new PrimativeArc(this, new IntersectableArc(new Coordinate(base.x - radius, base.y - radius), radius, fromAngle, toAngle));
+			knee.colour = 0x004080;
+			primatives.add(knee);
+		}
+		
+		updateRightmostPoint(base, minX, minY, maxX, maxY);
+	}
+	
+	//the label gets anchored where it always has been, which is the end of the last of getLineBreakdown()'s samples to fit
+	//in the bounds. as long as the curve is right of the document's origin, that's the top of the vertical part if any of
+	//it is showing, otherwise the right of the flat part. anything else has to go through the samples
+	void updateRightmostPoint(Coordinate base, double minX, double minY, double maxX, double maxY) {
+		double radius = keynesianSectionRadius;
+		double sampleLimit = Math.ceil((EXTENT - radius) / SAMPLE_STEP) - 1;
+		
+		if (base.x + minX > 0) {
+			if (minX <= 0 && maxX >= 0) {
+				//the k'th vertical sample goes from y = -radius - k * SAMPLE_STEP down by SAMPLE_STEP
+				double firstK = Math.max(0, Math.ceil((SAMPLE_STEP - radius - maxY) / SAMPLE_STEP));
+				double lastK = Math.min(sampleLimit, Math.floor((-radius - minY) / SAMPLE_STEP));
+				if (firstK <= lastK) {
+					rightmostX = 0;
+					rightmostY = -radius - lastK * SAMPLE_STEP + SAMPLE_STEP;
+					return;
+				}
+			}
+			if (minY <= 0 && maxY >= 0) {
+				//the k'th flat sample goes from x = -EXTENT + k * SAMPLE_STEP right by SAMPLE_STEP
+				double firstK = Math.max(0, Math.ceil((minX + EXTENT) / SAMPLE_STEP));
+				double lastK = Math.min(sampleLimit, Math.floor((maxX - SAMPLE_STEP + EXTENT) / SAMPLE_STEP));
+				if (firstK <= lastK) {
+					rightmostX = -EXTENT + lastK * SAMPLE_STEP + SAMPLE_STEP;
+					rightmostY = 0;
+					return;
+				}
+			}
+		}
+		
+		updateRightmostPoint(getClippedLineBreakdown(minX, minY, maxX, maxY), base);
+	}
+
 	@Override
 	public String getName() {
 		return "Keynesian LRAS Line";
@@ -96,11 +254,16 @@ public class KeynesianLRAS extends PrimaryLine {
 		properties.add(new PropertyEntryTextBox("y", "Y:", String.format("%.1f", relativePosition.y)));
 		properties.add(slider);
 
-		update();
-
 		return properties;
 	}
 
+	@Override
+	public void propertyEntryRebound(PropertyEntry entry) {
+		if (entry.id.equals("radius")) {
+			slider = (PropertyEntrySlider) entry;
+		}
+	}
+
 	@Override
 	public void updateProperty(PropertyEntry property) {		
 		if (property.id.equals("radius")) {
@@ -67,6 +67,16 @@ public class Label extends DrawObject {
 		return properties;
 	}
 
+	@Override
+	public void propertyEntryRebound(PropertyEntry entry) {
+		if (entry.id.equals("text")) {
+			textEntry = (PropertyEntryTextBox) entry;
+		}
+		if (entry.id.equals("richtext")) {
+			richTextEntry = (PropertyEntryRichTextBox) entry;
+		}
+	}
+
 	@Override
 	public String objectType3DigitID() {
 		return "LBL";
@@ -150,15 +160,43 @@ public class Label extends DrawObject {
 	}
 
 	@Override
-	public void addDrawPrimativesPreChild(Coordinate base, List<DrawPrimative> primatives) {
+	public void addDrawPrimativesPreChild(RenderContext context, Coordinate base, List<DrawPrimative> primatives) {
 		
 	}
 
-	@Override
-	public void addDrawPrimativesPostChild(Coordinate base, List<DrawPrimative> primatives) {
-		String[] lines = text.split("\n");
+	//the size that each run of text is laid out with. subscripts are measured at their real size, but normal text has always
+	//been measured at the default size rather than the label's, and changing that now would move every existing label around
+	double getRunMeasuringSize(boolean small) {
+		return small ? fontsize / 1.1 : PrimativeText.DEFAULT_FONT_SIZE;
+	}
+	
+	//width of a run of text, in pixels at the context's zoom
+	double measureRun(String line, boolean small, RenderContext context) {
+		return context.stringWidth((int) (getRunMeasuringSize(small) * context.zoom), line);
+	}
 
-		double zoom = getCanvasParent().zoomPanSettings.zoom;
+	//one piece of text in the layout, and where it goes relative to the label's position
+	static class LayoutRun {
+		String text;
+		Coordinate shift;
+		double fontSize;
+	}
+	
+	//the layout only depends on these, so it is kept until one of them changes
+	List<LayoutRun> layout = null;
+	String layoutText;
+	double layoutFontsize;
+	boolean layoutRotated;
+	RenderContext layoutContext;
+	
+	List<LayoutRun> getLayout(RenderContext context) {
+		if (layout != null && text.equals(layoutText) && fontsize == layoutFontsize && rotated == layoutRotated && context.rendersLike(layoutContext)) {
+			return layout;
+		}
+		
+		double zoom = context.zoom;
+		
+		String[] lines = text.split("\n");
 		
 		double yShift = 0.0;
 		boolean small = false;
@@ -172,12 +210,7 @@ public class Label extends DrawObject {
 			double thisLineWidth = 0.0;
 
 			for (String line : subline) {				
-				PrimativeText dummy2 = new PrimativeText(this, line, base);
-				if (small) {
-					dummy2.setFontSize(fontsize / 1.1);
-				}
-				
-				thisLineWidth += dummy2.getWidth() / zoom;
+				thisLineWidth += measureRun(line, small, context) / zoom;
 				small = !small;
 				thisLineWidth -= (small ? 3 : -3) / zoom;
 			}
@@ -188,6 +221,8 @@ public class Label extends DrawObject {
 			lineLengths.add(thisLineWidth);
 		}
 		
+		List<LayoutRun> runs = new ArrayList<LayoutRun>();
+		
 		for (String bigline : lines) {
 			String[] subline = bigline.split("\\^");
 			double xShift = 0;
@@ -204,26 +239,43 @@ public class Label extends DrawObject {
 					xShift -= 3 / zoom;
 				}
 				
-				PrimativeText dummy2 = new PrimativeText(this, line, base);
+				double runWidth = measureRun(line, small, context);
+				double runHeight = getRunMeasuringSize(small);
 				if (small) {
 					yShift += 7;
-					dummy2.setFontSize(fontsize / 1.1);
 				}
-				if (dummy2.getHeight() + (small ? 9 : 0) / zoom> maxHeight) {
-					maxHeight = dummy2.getHeight() + (small ? 9 : 0) / zoom;
+				if (runHeight + (small ? 9 : 0) / zoom> maxHeight) {
+					maxHeight = runHeight + (small ? 9 : 0) / zoom;
 				}
-				Coordinate coordShift = rotated ? new Coordinate(yShift, -xShift) : new Coordinate(xShift, yShift);
-				PrimativeText real = new PrimativeText(this, line, new Coordinate(base, coordShift));			
-				real.setRotation(rotated ? Math.PI / 2 : 0);
-				real.setFontSize(fontsize / (small ? 1.1 : 1.0));
-				primatives.add(real);
+				LayoutRun run = new LayoutRun();
+				run.text = line;
+				run.shift = rotated ? new Coordinate(yShift, -xShift) : new Coordinate(xShift, yShift);
+				run.fontSize = fontsize / (small ? 1.1 : 1.0);
+				runs.add(run);
 				if (small) yShift -= 7;
 				small = !small;
-				xShift += dummy2.getWidth() / zoom - (small ? 3 : -3) / zoom;
+				xShift += runWidth / zoom - (small ? 3 : -3) / zoom;
 			}
 			
 			yShift += maxHeight;
 		}
+		
+		layout = runs;
+		layoutText = text;
+		layoutFontsize = fontsize;
+		layoutRotated = rotated;
+		layoutContext = context;
+		return layout;
+	}
+
+	@Override
+	public void addDrawPrimativesPostChild(RenderContext context, Coordinate base, List<DrawPrimative> primatives) {
+		for (LayoutRun run : getLayout(context)) {
+			PrimativeText real = new PrimativeText(this, run.text, new Coordinate(base, run.shift), context);			
+			real.setRotation(rotated ? Math.PI / 2 : 0);
+			real.setFontSize(run.fontSize);
+			primatives.add(real);
+		}
 	}
 
 	@Override
@@ -233,5 +285,6 @@ public class Label extends DrawObject {
 
 	public void setFontSize(double d) {
 		fontsize = d;
+		markRenderDirty();
 	}
 }
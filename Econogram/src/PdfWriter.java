@@ -0,0 +1,311 @@
+import java.awt.BasicStroke;
+import java.awt.Shape;
+import java.awt.geom.PathIterator;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+//writes the document out as a one page PDF. the drawing goes into a single compressed content stream as it comes in, so
+//nothing is kept hold of apart from the compressor's buffer. the page is in points, which is what document units are already
+public class PdfWriter extends VectorWriter {
+	static final int CATALOG = 1;
+	static final int PAGES = 2;
+	static final int PAGE = 3;
+	static final int FONT = 4;
+	static final int CONTENTS = 5;
+	static final int CONTENTS_LENGTH = 6;
+
+	CountingOutputStream out;
+	List<Long> objectOffsets = new ArrayList<Long>();
+
+	DeflaterOutputStream content;
+	Deflater deflater;
+	long contentStart;
+
+	//the graphics state the content stream is currently in, so things are only set when they change. -1 means not set yet
+	int strokeColour = -1;
+	int fillColour = -1;
+	float lineWidth = -1;
+	int lineCap = -1;
+	int lineJoin = -1;
+	float miterLimit = -1;
+	float[] dashes = null;
+	float dashPhase = 0;
+
+	StringBuilder operators = new StringBuilder();
+	double[] coords = new double[6];
+
+	//keeps track of where everything ends up, which the cross reference table at the end needs
+	static class CountingOutputStream extends FilterOutputStream {
+		long count = 0;
+
+		CountingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			++count;
+		}
+
+		@Override
+		public void write(byte[] data, int offset, int length) throws IOException {
+			out.write(data, offset, length);
+			count += length;
+		}
+	}
+
+	public PdfWriter(OutputStream out) {
+		this.out = new CountingOutputStream(out);
+	}
+
+	void write(String text) throws IOException {
+		out.write(text.getBytes(StandardCharsets.ISO_8859_1));
+	}
+
+	void beginObject(int number) throws IOException {
+		//the objects are always written in order
+		objectOffsets.add(out.count);
+		write(String.format("%d 0 obj\n", number));
+	}
+
+	void writeObject(int number, String body) throws IOException {
+		beginObject(number);
+		write(body);
+		write("\nendobj\n");
+	}
+
+	@Override
+	public void begin(double width, double height) throws IOException {
+		//an empty document still needs a page with some size to it
+		width = Math.max(width, 1);
+		height = Math.max(height, 1);
+
+		//the binary comment tells anything reading it that the file isn't plain text
+		write("%PDF-1.4\n%\u00E2\u00E3\u00CF\u00D3\n");
+		writeObject(CATALOG, String.format("<< /Type /Catalog /Pages %d 0 R >>", PAGES));
+		writeObject(PAGES, String.format("<< /Type /Pages /Kids [%d 0 R] /Count 1 >>", PAGE));
+		writeObject(PAGE, String.format("<< /Type /Page /Parent %d 0 R /MediaBox [0 0 %s %s] /Resources << /Font << /F1 %d 0 R >> >> /Contents %d 0 R >>",
+										PAGES, number(width), number(height), FONT, CONTENTS));
+
+		//Helvetica has the same metrics as Arial, and is one of the fonts every reader has, so nothing needs embedding
+		writeObject(FONT, "<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica /Encoding /WinAnsiEncoding >>");
+
+		beginObject(CONTENTS);
+		write(String.format("<< /Length %d 0 R /Filter /FlateDecode >>\nstream\n", CONTENTS_LENGTH));
+		contentStart = out.count;
+
+		deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+		content = new DeflaterOutputStream(out, deflater, 64 * 1024);
+
+		//PDFs go up the page from the bottom, whereas the document goes down it from the top, so turn it upside down first
+		operators.setLength(0);
+		operators.append(String.format("1 0 0 -1 0 %s cm\n", number(height)));
+		writeOperators();
+	}
+
+	void writeOperators() throws IOException {
+		content.write(operators.toString().getBytes(StandardCharsets.ISO_8859_1));
+		operators.setLength(0);
+	}
+
+	void appendColour(int colour, String operator) {
+		operators.append(number(((colour >> 16) & 0xFF) / 255.0)).append(' ');
+		operators.append(number(((colour >> 8) & 0xFF) / 255.0)).append(' ');
+		operators.append(number((colour & 0xFF) / 255.0)).append(' ');
+		operators.append(operator).append('\n');
+	}
+
+	void appendPath(Shape shape) {
+		double lastX = 0;
+		double lastY = 0;
+
+		for (PathIterator iterator = shape.getPathIterator(null); !iterator.isDone(); iterator.next()) {
+			switch (iterator.currentSegment(coords)) {
+				case PathIterator.SEG_MOVETO:
+					appendPoints(1);
+					operators.append("m\n");
+					lastX = coords[0];
+					lastY = coords[1];
+					break;
+
+				case PathIterator.SEG_LINETO:
+					appendPoints(1);
+					operators.append("l\n");
+					lastX = coords[0];
+					lastY = coords[1];
+					break;
+
+				case PathIterator.SEG_QUADTO:
+					//PDFs only have cubic curves, but any quadratic one can be made into one with the same shape
+					double endX = coords[2];
+					double endY = coords[3];
+					coords[4] = endX;
+					coords[5] = endY;
+					coords[2] = endX + 2.0 / 3.0 * (coords[0] - endX);
+					coords[3] = endY + 2.0 / 3.0 * (coords[1] - endY);
+					coords[0] = lastX + 2.0 / 3.0 * (coords[0] - lastX);
+					coords[1] = lastY + 2.0 / 3.0 * (coords[1] - lastY);
+					appendPoints(3);
+					operators.append("c\n");
+					lastX = endX;
+					lastY = endY;
+					break;
+
+				case PathIterator.SEG_CUBICTO:
+					appendPoints(3);
+					operators.append("c\n");
+					lastX = coords[4];
+					lastY = coords[5];
+					break;
+
+				default:
+					operators.append("h\n");
+					break;
+			}
+		}
+	}
+
+	void appendPoints(int points) {
+		for (int i = 0; i < points * 2; ++i) {
+			operators.append(number(coords[i])).append(' ');
+		}
+	}
+
+	@Override
+	public void fill(Shape shape, int colour) throws IOException {
+		if (colour != fillColour) {
+			appendColour(colour, "rg");
+			fillColour = colour;
+		}
+
+		appendPath(shape);
+		operators.append(shape.getPathIterator(null).getWindingRule() == PathIterator.WIND_EVEN_ODD ? "f*\n" : "f\n");
+		writeOperators();
+	}
+
+	@Override
+	public void stroke(Shape shape, int colour, BasicStroke stroke) throws IOException {
+		if (colour != strokeColour) {
+			appendColour(colour, "RG");
+			strokeColour = colour;
+		}
+
+		//a width of zero is the thinnest line that can be shown, the same as it is in Java
+		if (stroke.getLineWidth() != lineWidth) {
+			lineWidth = stroke.getLineWidth();
+			operators.append(number(lineWidth)).append(" w\n");
+		}
+
+		//the caps and joins are numbered differently
+		int cap = stroke.getEndCap() == BasicStroke.CAP_BUTT ? 0 : stroke.getEndCap() == BasicStroke.CAP_ROUND ? 1 : 2;
+		if (cap != lineCap) {
+			lineCap = cap;
+			operators.append(cap).append(" J\n");
+		}
+
+		int join = stroke.getLineJoin() == BasicStroke.JOIN_MITER ? 0 : stroke.getLineJoin() == BasicStroke.JOIN_ROUND ? 1 : 2;
+		if (join != lineJoin) {
+			lineJoin = join;
+			operators.append(join).append(" j\n");
+		}
+
+		if (join == 0 && stroke.getMiterLimit() != miterLimit) {
+			miterLimit = stroke.getMiterLimit();
+			operators.append(number(miterLimit)).append(" M\n");
+		}
+
+		if (!Arrays.equals(stroke.getDashArray(), dashes) || stroke.getDashPhase() != dashPhase) {
+			dashes = stroke.getDashArray();
+			dashPhase = stroke.getDashPhase();
+
+			operators.append('[');
+			if (dashes != null) {
+				for (int i = 0; i < dashes.length; ++i) {
+					operators.append(i > 0 ? " " : "").append(number(dashes[i]));
+				}
+			}
+			operators.append("] ").append(number(dashPhase)).append(" d\n");
+		}
+
+		appendPath(shape);
+		operators.append("S\n");
+		writeOperators();
+	}
+
+	//the characters WinAnsiEncoding has where Latin-1 has control codes (0x80 to 0x9F). the gaps are codes it doesn't use
+	static final String WIN_ANSI_EXTRAS = "\u20AC\u0000\u201A\u0192\u201E\u2026\u2020\u2021\u02C6\u2030\u0160\u2039\u0152\u0000\u017D\u0000" +
+										  "\u0000\u2018\u2019\u201C\u201D\u2022\u2013\u2014\u02DC\u2122\u0161\u203A\u0153\u0000\u017E\u0178";
+
+	//the byte WinAnsiEncoding uses for the character, or -1 if the built in fonts can't show it
+	static int winAnsiCode(char c) {
+		if (c >= 32 && c < 127 || c >= 160 && c <= 255) {
+			return c;
+		}
+		int extra = WIN_ANSI_EXTRAS.indexOf(c);
+		return c != 0 && extra != -1 ? 0x80 + extra : -1;
+	}
+
+	//the string gets written out as Latin-1, so each character here ends up as the byte with the same number
+	static void appendString(StringBuilder builder, String text) {
+		builder.append('(');
+		for (int i = 0; i < text.length(); ++i) {
+			char c = text.charAt(i);
+			int code = winAnsiCode(c);
+			if (c == '(' || c == ')' || c == '\\') {
+				builder.append('\\').append(c);
+			} else if (code == -1) {
+				builder.append('?');
+			} else {
+				builder.append((char) code);
+			}
+		}
+		builder.append(')');
+	}
+
+	@Override
+	public void text(String text, double x, double y, double size, double radians, int colour) throws IOException {
+		if (colour != fillColour) {
+			appendColour(colour, "rg");
+			fillColour = colour;
+		}
+
+		//the text matrix has to turn the letters the right way up again (as the page was flipped), as well as rotating them
+		double cos = Math.cos(radians);
+		double sin = Math.sin(radians);
+
+		operators.append("BT\n/F1 ").append(number(size)).append(" Tf\n");
+		operators.append(number(cos)).append(' ').append(number(-sin)).append(' ').append(number(-sin)).append(' ').append(number(-cos)).append(' ');
+		operators.append(number(x)).append(' ').append(number(y)).append(" Tm\n");
+		appendString(operators, text);
+		operators.append(" Tj\nET\n");
+		writeOperators();
+	}
+
+	@Override
+	public void finish() throws IOException {
+		content.finish();
+		deflater.end();
+		long contentLength = out.count - contentStart;
+		write("\nendstream\nendobj\n");
+
+		writeObject(CONTENTS_LENGTH, Long.toString(contentLength));
+
+		long crossReferenceStart = out.count;
+		write(String.format("xref\n0 %d\n", objectOffsets.size() + 1));
+		write("0000000000 65535 f \n");
+		for (long offset : objectOffsets) {
+			write(String.format("%010d 00000 n \n", offset));
+		}
+
+		write(String.format("trailer\n<< /Size %d /Root %d 0 R >>\nstartxref\n%d\n%%%%EOF\n", objectOffsets.size() + 1, CATALOG, crossReferenceStart));
+		out.flush();
+	}
+}
@@ -121,7 +121,7 @@ public class Point extends DrawObject {
 	}
 
 	@Override
-	public void addDrawPrimativesPreChild(Coordinate base, List<DrawPrimative> primatives) {
+	public void addDrawPrimativesPreChild(RenderContext context, Coordinate base, List<DrawPrimative> primatives) {
 		if (label != null) label.setCanvasParent(getCanvasParent());
 		
 		if (parent != null && hzLine == null) {
@@ -136,7 +136,7 @@ public class Point extends DrawObject {
 	}
 
 	@Override
-	public void addDrawPrimativesPostChild(Coordinate base, List<DrawPrimative> primatives) {
+	public void addDrawPrimativesPostChild(RenderContext context, Coordinate base, List<DrawPrimative> primatives) {
 		if (!showDot) return;
 		
 		if (!circular) {
@@ -39,7 +39,7 @@ public class PointRightClickMenu extends RightClickMenu {
 								Label newLabel = new Label(new Coordinate(0.0, 0.0), "New label");
 								point.label = newLabel;
 								point.addChild(newLabel);
-								point.addDrawPrimativesPostChild(point.getAbsolutePosition(), new ArrayList<DrawPrimative>());
+								point.addDrawPrimativesPostChild(point.getCanvasParent().getRenderContext(), point.getAbsolutePosition(), new ArrayList<DrawPrimative>());
 							}
 							
 							point.getCanvasParent().repaint();
@@ -1,5 +1,7 @@
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 public abstract class PrimaryLine extends DrawObject {
 
@@ -18,6 +20,20 @@ public abstract class PrimaryLine extends DrawObject {
 	
 	int labelReloadUID = 0;
 	
+	//bumped by update(), which everything that moves the line or changes its shape goes through (dragging, undo and redo,
+	//the properties panel), so anything worked out from where the line is can tell when it's out of date
+	int geometryVersion = 0;
+	
+	//where we cross the other lines, along with the versions of both lines when it was worked out. it's weak so that lines
+	//that get deleted don't hang around
+	Map<PrimaryLine, CachedIntersection> intersectionCache = new WeakHashMap<PrimaryLine, CachedIntersection>();
+	
+	static class CachedIntersection {
+		int ourVersion;
+		int theirVersion;
+		Coordinate intersection;
+	}
+	
 	public abstract String getDefaultLabelText();
 	
 	public abstract void copy();
@@ -145,13 +161,15 @@ public abstract class PrimaryLine extends DrawObject {
 	}
 
 	@Override
-	public void addDrawPrimativesPreChild(Coordinate base, List<DrawPrimative> primatives) {
+	public void addDrawPrimativesPreChild(RenderContext context, Coordinate base, List<DrawPrimative> primatives) {
 		if (label != null && label.canvasParent == null) {
 			label.setCanvasParent(getCanvasParent());
 			label.update();			//force calculation of the label's position
 		}
 	}
 	
+	//only for lines that can't work out where they cross directly. supply/demand lines and the Keynesian LRAS both can, for
+	//every pairing of the two, so nothing gets here at the moment
 	public Coordinate intersection(PrimaryLine other) {
 		List<IntersectableLine> ourLines = getLineBreakdown();
 		List<IntersectableLine> theirLines = other.getLineBreakdown();
@@ -182,6 +200,35 @@ public abstract class PrimaryLine extends DrawObject {
 		return null;
 	}
 	
+	//the same as intersection(), but only worked out again if one of the lines has changed since last time. the coordinate
+	//is shared with the cache, so it mustn't be modified
+	public Coordinate cachedIntersection(PrimaryLine other) {
+		CachedIntersection cached = intersectionCache.get(other);
+		if (cached != null && cached.ourVersion == geometryVersion && cached.theirVersion == other.geometryVersion) {
+			return cached.intersection;
+		}
+		
+		if (cached == null) {
+			cached = new CachedIntersection();
+			intersectionCache.put(other, cached);
+		}
+		cached.ourVersion = geometryVersion;
+		cached.theirVersion = other.geometryVersion;
+		cached.intersection = intersection(other);
+		
+		return cached.intersection;
+	}
+	
+	public int getGeometryVersion() {
+		return geometryVersion;
+	}
+	
+	@Override
+	public void update() {
+		++geometryVersion;
+		super.update();
+	}
+	
 	public List<PrimaryLine> getOverlappingPrimaryLines(double mx, double my) {
 		List<PrimaryLine> lines = new ArrayList<PrimaryLine>();
 		
@@ -202,11 +249,12 @@ public abstract class PrimaryLine extends DrawObject {
 
 		List<PrimaryLine> overlappingLines = new ArrayList<PrimaryLine>();
 		for (PrimaryLine line : lines) {
-			if (line.intersection(this) != null && this.intersection(line) != null) {
-				if (line.intersection(this).x > 0 && line.intersection(this).y > 0) {
+			Coordinate crossing = line.cachedIntersection(this);
+			if (crossing != null && this.cachedIntersection(line) != null) {
+				if (crossing.x > 0 && crossing.y > 0) {
 					
-					double distX = Math.abs(line.intersection(this).x - mx) + 1;
-					double distY = Math.abs(line.intersection(this).y - my) + 1;
+					double distX = Math.abs(crossing.x - mx) + 1;
+					double distY = Math.abs(crossing.y - my) + 1;
 										
 					if (Math.sqrt(distX * distX + distY * distY) < 85) {
 						overlappingLines.add(line);
@@ -218,61 +266,72 @@ public abstract class PrimaryLine extends DrawObject {
 		return overlappingLines;
 	}
 	
-	@Override
-	public void addDrawPrimativesPostChild(Coordinate base, List<DrawPrimative> primatives) {
-		if (parent == null) {
-			return;
-		}
-		
-		Axis axis = (Axis) parent;
-		
-		List<IntersectableLine> lines = getLineBreakdown();
-		
-		rightmostX = 0;
+	//the segments of getLineBreakdown() that are entirely within the given bounds (relative to the line's position),
+	//which are the ones that get drawn. subclasses that can work this out without going through every segment should override it
+	public List<IntersectableLine> getClippedLineBreakdown(double minX, double minY, double maxX, double maxY) {
+		List<IntersectableLine> clipped = new ArrayList<IntersectableLine>();
 		
-		for (IntersectableLine line : lines) {
-			IntersectableLine normalisedLine = line;
-			
-			if (normalisedLine.p1.x + base.x - padding < parent.getAbsolutePosition().x) {
-				continue;
-			}
-			if (normalisedLine.p2.x + base.x - padding  < parent.getAbsolutePosition().x) {
-				continue;
-			}
-			if (normalisedLine.p1.y + base.y - padding < parent.getAbsolutePosition().y) {
-				continue;
-			}
-			if (normalisedLine.p2.y + base.y - padding < parent.getAbsolutePosition().y) {
+		for (IntersectableLine line : getLineBreakdown()) {
+			if (line.p1.x < minX || line.p2.x < minX || line.p1.y < minY || line.p2.y < minY) {
 				continue;
 			}
-			if (normalisedLine.p1.x + base.x + padding > parent.getAbsolutePosition().x + axis.axisSize) {
+			if (line.p1.x > maxX || line.p2.x > maxX || line.p1.y > maxY || line.p2.y > maxY) {
 				continue;
 			}
-			if (normalisedLine.p2.x + base.x + padding > parent.getAbsolutePosition().x + axis.axisSize) {
-				continue;
-			}
-			if (normalisedLine.p1.y + base.y + padding > parent.getAbsolutePosition().y + axis.axisSize) {
-				continue;
-			}
-			if (normalisedLine.p2.y + base.y + padding > parent.getAbsolutePosition().y + axis.axisSize) {
-				continue;
-			}
-			
-			Coordinate c1 = new Coordinate(base, normalisedLine.p1);
-			Coordinate c2 = new Coordinate(base, normalisedLine.p2);
-			PrimativeLine pl = new PrimativeLine(this, c1, c2);
-			pl.colour = 0x004080;
-			primatives.add(pl);
-			
-			if (c1.x > rightmostX) {
-				rightmostX = normalisedLine.p1.x;
-				rightmostY = normalisedLine.p1.y;
+			clipped.add(line);
+		}
+		
+		return clipped;
+	}
+	
+	//works out where the label gets anchored (rightmostX and rightmostY, relative to the line's position) from what
+	//getClippedLineBreakdown() returned
+	protected void updateRightmostPoint(List<IntersectableLine> clippedLines, Coordinate base) {
+		rightmostX = 0;
+		
+		for (IntersectableLine line : clippedLines) {
+			if (line.p1.x + base.x > rightmostX) {
+				rightmostX = line.p1.x;
+				rightmostY = line.p1.y;
 			}
-			if (c2.x > rightmostX) {
-				rightmostX = normalisedLine.p2.x;
-				rightmostY = normalisedLine.p2.y;
+			if (line.p2.x + base.x > rightmostX) {
+				rightmostX = line.p2.x;
+				rightmostY = line.p2.y;
 			}
 		}
+	}
+	
+	//adds whatever draws the part of the line within the given bounds (relative to the line's position), and updates
+	//rightmostX and rightmostY to match. by default the clipped segments get drawn as one polyline
+	protected void addLinePrimatives(Coordinate base, double minX, double minY, double maxX, double maxY, List<DrawPrimative> primatives) {
+		List<IntersectableLine> lines = getClippedLineBreakdown(minX, minY, maxX, maxY);
+		
+		PrimativePolyline polyline = new PrimativePolyline(this);
+		polyline.colour = 0x004080;
+		
+		for (IntersectableLine line : lines) {
+			polyline.addSegment(new Coordinate(base, line.p1), new Coordinate(base, line.p2));
+		}
+		
+		updateRightmostPoint(lines, base);
+		
+		if (polyline.getSegmentCount() != 0) {
+			primatives.add(polyline);
+		}
+	}
+	
+	@Override
+	public void addDrawPrimativesPostChild(RenderContext context, Coordinate base, List<DrawPrimative> primatives) {
+		if (parent == null) {
+			return;
+		}
+		
+		Axis axis = (Axis) parent;
+		Coordinate axisPosition = parent.getAbsolutePosition();
+		
+		//keep the line at least padding away from the edges of the axis
+		addLinePrimatives(base, axisPosition.x - base.x + padding, axisPosition.y - base.y + padding,
+						  axisPosition.x + axis.axisSize - base.x - padding, axisPosition.y + axis.axisSize - base.y - padding, primatives);
 
 		if (!firstRightmostCalculationDoneYet) {
 			labelExpectedX = rightmostX + 10;
@@ -283,6 +342,7 @@ public abstract class PrimaryLine extends DrawObject {
 			label.relativePosition.y = labelExpectedY;
 			firstRightmostCalculationDoneYet = true;
 			label.text = getDefaultLabelText();
+			label.markRenderDirty();
 		}
 	}
 }
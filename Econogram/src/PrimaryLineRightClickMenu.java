@@ -90,7 +90,7 @@ public class PrimaryLineRightClickMenu extends RightClickMenu {
 								line.addChild(newLabel);
 								line.firstRightmostCalculationDoneYet = false;
 								line.recalculateLabelPosition();
-								line.addDrawPrimativesPostChild(line.getAbsolutePosition(), new ArrayList<DrawPrimative>());
+								line.addDrawPrimativesPostChild(line.getCanvasParent().getRenderContext(), line.getAbsolutePosition(), new ArrayList<DrawPrimative>());
 							}
 							
 							line.getCanvasParent().repaint();
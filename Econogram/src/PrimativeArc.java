@@ -0,0 +1,113 @@
+import java.awt.*;
+import java.awt.geom.Arc2D;
+import java.awt.geom.Rectangle2D;
+import java.io.IOException;
+
+//part of the outline of a circle. angles are as in IntersectableArc (radians, towards +y from the +x direction)
+public class PrimativeArc extends DrawPrimative {
+	IntersectableArc arc;
+	Rectangle2D.Double curveBounds;
+
+	int colour;
+	double width;
+
+	public PrimativeArc(DrawObject parent, IntersectableArc arc) {
+		super(parent);
+
+		this.arc = arc;
+		curveBounds = calculateCurveBounds();
+
+		colour = 0x000000;
+		width = 3.0;
+	}
+
+	@Override
+	public void draw(RenderContext context) {
+		Graphics2D internalGraphics2D = context.graphics;
+
+		double left = (arc.centre.x - arc.radius) * context.zoom - context.x;
+		double top = (arc.centre.y - arc.radius) * context.zoom - context.y;
+		double size = arc.radius * 2 * context.zoom;
+
+		//Arc2D measures its angles in degrees the other way round (it goes anticlockwise on screen)
+		internalGraphics2D.setColor(RenderStateCache.colour(parent.isSelected() ? 0xFF5500 : colour));
+		internalGraphics2D.setStroke(RenderStateCache.stroke((float) (width * context.zoom)));
+		internalGraphics2D.draw(new Arc2D.Double(left, top, size, size, -Math.toDegrees(arc.startAngle), -Math.toDegrees(arc.endAngle - arc.startAngle), Arc2D.OPEN));
+
+		if (context.showingPrimaryAxisHint) {
+			Rectangle2D.Double box = curveBounds;
+			internalGraphics2D.setColor(RenderStateCache.colour(0x00A0A0));
+			internalGraphics2D.setStroke(RenderStateCache.stroke((float) 0.5));
+			internalGraphics2D.drawRect((int) (box.x * context.zoom - context.x), (int) (box.y * context.zoom - context.y), (int) (box.width * context.zoom + 1), (int) (box.height * context.zoom + 1));
+		}
+	}
+
+	@Override
+	public void write(VectorWriter out) throws IOException {
+		Arc2D.Double curve = new Arc2D.Double(arc.centre.x - arc.radius, arc.centre.y - arc.radius, arc.radius * 2, arc.radius * 2,
+											  -Math.toDegrees(arc.startAngle), -Math.toDegrees(arc.endAngle - arc.startAngle), Arc2D.OPEN);
+		out.stroke(curve, parent.isSelected() ? 0xFF5500 : colour, RenderStateCache.stroke((float) width));
+	}
+
+	//the box around the curve itself (not the stroke), which is the two ends plus any of the circle's extremes in between
+	Rectangle2D.Double calculateCurveBounds() {
+		Coordinate start = arc.getPoint(arc.startAngle);
+		Coordinate end = arc.getPoint(arc.endAngle);
+
+		double minX = Math.min(start.x, end.x);
+		double minY = Math.min(start.y, end.y);
+		double maxX = Math.max(start.x, end.x);
+		double maxY = Math.max(start.y, end.y);
+
+		for (int quarter = 0; quarter < 4; ++quarter) {
+			Coordinate extreme = arc.getPoint(quarter * Math.PI / 2);
+			if (arc.covers(extreme)) {
+				minX = Math.min(minX, extreme.x);
+				minY = Math.min(minY, extreme.y);
+				maxX = Math.max(maxX, extreme.x);
+				maxY = Math.max(maxY, extreme.y);
+			}
+		}
+
+		return new Rectangle2D.Double(minX, minY, maxX - minX, maxY - minY);
+	}
+
+	//distance from the edge of the stroke, which is straight out from the circle if the point is level with the arc,
+	//otherwise it is to whichever end is closer
+	@Override
+	public double distanceTo(double x, double y) {
+		double distance;
+
+		if (arc.covers(new Coordinate(x, y))) {
+			double dx = x - arc.centre.x;
+			double dy = y - arc.centre.y;
+			distance = Math.abs(Math.sqrt(dx * dx + dy * dy) - arc.radius);
+		} else {
+			Coordinate start = arc.getPoint(arc.startAngle);
+			Coordinate end = arc.getPoint(arc.endAngle);
+			distance = Math.min(Math.hypot(x - start.x, y - start.y), Math.hypot(x - end.x, y - end.y));
+		}
+
+		return distance - width / 2;
+	}
+
+	@Override
+	public double getWidth() {
+		return curveBounds.width + 2 * width;
+	}
+
+	@Override
+	public double getHeight() {
+		return curveBounds.height + 2 * width;
+	}
+
+	@Override
+	public double getX() {
+		return curveBounds.x - width;
+	}
+
+	@Override
+	public double getY() {
+		return curveBounds.y - width;
+	}
+}
@@ -1,5 +1,6 @@
 import java.awt.*;
 import java.awt.geom.*;
+import java.io.IOException;
 
 public class PrimativeEllipse extends DrawPrimative {
 	Coordinate point;
@@ -24,16 +25,21 @@ public class PrimativeEllipse extends DrawPrimative {
 	}
 
 	@Override
-	public void draw(Graphics g, ZoomPanSettings settings) {		
-		Graphics2D internalGraphics2D = (Graphics2D) g;
-		internalGraphics2D.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
-		internalGraphics2D.setRenderingHint(RenderingHints.KEY_ANTIALIASING,RenderingHints.VALUE_ANTIALIAS_ON); 
+	public void draw(RenderContext context) {		
+		Graphics2D internalGraphics2D = context.graphics;
 				
-		internalGraphics2D.setColor(new Color(parent.isSelected() ? 0xFF5500 : fillColour));
-		internalGraphics2D.fill(new Ellipse2D.Double(point.x * settings.zoom - settings.x, point.y * settings.zoom - settings.y, actualWidth * settings.zoom, actualHeight * settings.zoom));
-		internalGraphics2D.setColor(new Color(parent.isSelected() ? 0xFF0000 : outlineColour));
-		internalGraphics2D.setStroke(new BasicStroke((float) (width * settings.zoom)));
-		internalGraphics2D.draw(new Ellipse2D.Double(point.x * settings.zoom - settings.x, point.y * settings.zoom - settings.y, actualWidth * settings.zoom, actualHeight * settings.zoom));
+		internalGraphics2D.setColor(RenderStateCache.colour(parent.isSelected() ? 0xFF5500 : fillColour));
+		internalGraphics2D.fill(new Ellipse2D.Double(point.x * context.zoom - context.x, point.y * context.zoom - context.y, actualWidth * context.zoom, actualHeight * context.zoom));
+		internalGraphics2D.setColor(RenderStateCache.colour(parent.isSelected() ? 0xFF0000 : outlineColour));
+		internalGraphics2D.setStroke(RenderStateCache.stroke((float) (width * context.zoom)));
+		internalGraphics2D.draw(new Ellipse2D.Double(point.x * context.zoom - context.x, point.y * context.zoom - context.y, actualWidth * context.zoom, actualHeight * context.zoom));
+	}
+
+	@Override
+	public void write(VectorWriter out) throws IOException {
+		Ellipse2D.Double ellipse = new Ellipse2D.Double(point.x, point.y, actualWidth, actualHeight);
+		out.fill(ellipse, parent.isSelected() ? 0xFF5500 : fillColour);
+		out.stroke(ellipse, parent.isSelected() ? 0xFF0000 : outlineColour, RenderStateCache.stroke((float) width));
 	}
 
 	@Override
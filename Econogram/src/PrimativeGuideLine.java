@@ -1,5 +1,7 @@
 import java.awt.*;
 import java.awt.geom.Line2D;
+import java.awt.geom.Rectangle2D;
+import java.io.IOException;
 
 public class PrimativeGuideLine extends DrawPrimative {
 
@@ -22,21 +24,25 @@ public class PrimativeGuideLine extends DrawPrimative {
 	}
 
 	@Override
-	public void draw(Graphics g, ZoomPanSettings settings) {	
-		double x1 = p1.x * settings.zoom - settings.x;
-		double y1 = p1.y * settings.zoom - settings.y;
-		double x2 = p2.x * settings.zoom - settings.x;
-		double y2 = p2.y * settings.zoom - settings.y;
+	public void draw(RenderContext context) {	
+		double x1 = p1.x * context.zoom - context.x;
+		double y1 = p1.y * context.zoom - context.y;
+		double x2 = p2.x * context.zoom - context.x;
+		double y2 = p2.y * context.zoom - context.y;
 			
-		Graphics2D internalGraphics2D = (Graphics2D) g;
-		internalGraphics2D.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
-		internalGraphics2D.setRenderingHint(RenderingHints.KEY_ANTIALIASING,RenderingHints.VALUE_ANTIALIAS_ON); 
-
-		internalGraphics2D.setColor(new Color(parent.isSelected() ? 0xFF5500 : colour));
-		internalGraphics2D.setStroke(new BasicStroke((int)(width * settings.zoom), BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL, 0, new float[]{(float) (length * settings.zoom)}, 0));
+		Graphics2D internalGraphics2D = context.graphics;
+		internalGraphics2D.setColor(RenderStateCache.colour(parent.isSelected() ? 0xFF5500 : colour));
+		internalGraphics2D.setStroke(RenderStateCache.dashedStroke((int) (width * context.zoom), (float) (length * context.zoom)));
 		internalGraphics2D.draw(new Line2D.Double(x1, y1, x2, y2));
 	}
 
+	@Override
+	public void write(VectorWriter out) throws IOException {
+		//the same dashes as draw() uses, without its width being rounded to whole pixels
+		BasicStroke stroke = new BasicStroke((float) width, BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL, 0, new float[]{(float) length}, 0);
+		out.stroke(new Line2D.Double(p1.x, p1.y, p2.x, p2.y), parent.isSelected() ? 0xFF5500 : colour, stroke);
+	}
+
 	@Override
 	public double getWidth() {
 		return 0;
@@ -48,6 +54,14 @@ public class PrimativeGuideLine extends DrawPrimative {
 
 	}
 
+	@Override
+	protected Rectangle2D.Double calculateBounds() {
+		//getWidth() and getHeight() are zero so guide lines can't be clicked on, but they still need to be drawn
+		double minX = p1.x < p2.x ? p1.x : p2.x;
+		double minY = p1.y < p2.y ? p1.y : p2.y;
+		return new Rectangle2D.Double(minX - width, minY - width, Math.abs(p1.x - p2.x) + 2 * width, Math.abs(p1.y - p2.y) + 2 * width);
+	}
+
 	@Override
 	public double getX() {
 		return (p1.x < p2.x ? p1.x : p2.x) - width;
@@ -1,5 +1,6 @@
 import java.awt.*;
 import java.awt.geom.Line2D;
+import java.io.IOException;
 
 public class PrimativeLine extends DrawPrimative {
 
@@ -9,10 +10,6 @@ public class PrimativeLine extends DrawPrimative {
 	int colour;
 	double width;
 	
-	public boolean showingHints() {
-		return getParent().getCanvasParent().isShowingPrimaryAxisHint();
-	}
-	
 	public PrimativeLine(DrawObject parent, Coordinate start, Coordinate end) {
 		super(parent);
 
@@ -24,23 +21,20 @@ public class PrimativeLine extends DrawPrimative {
 	}
 
 	@Override
-	public void draw(Graphics g, ZoomPanSettings settings) {		
-		double x1 = p1.x * settings.zoom - settings.x;
-		double y1 = p1.y * settings.zoom - settings.y;
-		double x2 = p2.x * settings.zoom - settings.x;
-		double y2 = p2.y * settings.zoom - settings.y;
+	public void draw(RenderContext context) {		
+		double x1 = p1.x * context.zoom - context.x;
+		double y1 = p1.y * context.zoom - context.y;
+		double x2 = p2.x * context.zoom - context.x;
+		double y2 = p2.y * context.zoom - context.y;
 			
-		Graphics2D internalGraphics2D = (Graphics2D) g;
-		internalGraphics2D.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
-		internalGraphics2D.setRenderingHint(RenderingHints.KEY_ANTIALIASING,RenderingHints.VALUE_ANTIALIAS_ON); 
-
-		internalGraphics2D.setColor(new Color(parent.isSelected() ? 0xFF5500 : colour));
-		internalGraphics2D.setStroke(new BasicStroke((float) (width * settings.zoom)));
+		Graphics2D internalGraphics2D = context.graphics;
+		internalGraphics2D.setColor(RenderStateCache.colour(parent.isSelected() ? 0xFF5500 : colour));
+		internalGraphics2D.setStroke(RenderStateCache.stroke((float) (width * context.zoom)));
 		internalGraphics2D.draw(new Line2D.Double(x1, y1, x2, y2));
 		
-		if (showingHints()) {
-			internalGraphics2D.setColor(new Color(0x00A0A0));
-			internalGraphics2D.setStroke(new BasicStroke((float) 0.5));
+		if (context.showingPrimaryAxisHint) {
+			internalGraphics2D.setColor(RenderStateCache.colour(0x00A0A0));
+			internalGraphics2D.setStroke(RenderStateCache.stroke((float) 0.5));
 			
 			double minX = x1 < x2 ? x1 : x2;
 			double minY = y1 < y2 ? y1 : y2;
@@ -51,6 +45,27 @@ public class PrimativeLine extends DrawPrimative {
 		}
 	}
 
+	@Override
+	public void write(VectorWriter out) throws IOException {
+		out.stroke(new Line2D.Double(p1.x, p1.y, p2.x, p2.y), parent.isSelected() ? 0xFF5500 : colour, RenderStateCache.stroke((float) width));
+	}
+
+	//distance from the edge of the stroke, rather than from the bounding box (which for a diagonal line covers a lot more than the line)
+	@Override
+	public double distanceTo(double x, double y) {
+		double dx = p2.x - p1.x;
+		double dy = p2.y - p1.y;
+		double lengthSquared = dx * dx + dy * dy;
+		
+		double t = lengthSquared == 0 ? 0 : ((x - p1.x) * dx + (y - p1.y) * dy) / lengthSquared;
+		if (t < 0) t = 0;
+		if (t > 1) t = 1;
+		
+		double nearestX = p1.x + t * dx - x;
+		double nearestY = p1.y + t * dy - y;
+		return Math.sqrt(nearestX * nearestX + nearestY * nearestY) - width / 2;
+	}
+
 	@Override
 	public double getWidth() {
 		return Math.abs(p1.x - p2.x) + width;
@@ -3,6 +3,7 @@ import java.awt.geom.Line2D;
 import java.awt.geom.Path2D;
 import java.util.ArrayList;
 import java.util.List;
+import java.io.IOException;
 
 public class PrimativePolygon extends DrawPrimative {
 	List<Coordinate> points;
@@ -12,10 +13,6 @@ public class PrimativePolygon extends DrawPrimative {
 
 	double width;
 	
-	public boolean showingHints() {
-		return getParent().getCanvasParent().isShowingPrimaryAxisHint();
-	}
-	
 	public PrimativePolygon(DrawObject parent, List<Coordinate> p) {
 		super(parent);
 
@@ -31,29 +28,40 @@ public class PrimativePolygon extends DrawPrimative {
 	}
 
 	@Override
-	public void draw(Graphics g, ZoomPanSettings settings) {		
-		Graphics2D internalGraphics2D = (Graphics2D) g;
-		internalGraphics2D.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
-		internalGraphics2D.setRenderingHint(RenderingHints.KEY_ANTIALIASING,RenderingHints.VALUE_ANTIALIAS_ON); 
+	public void draw(RenderContext context) {		
+		Graphics2D internalGraphics2D = context.graphics;
 		
 		Path2D path = new Path2D.Double();
-		path.moveTo(points.get(0).x * settings.zoom - settings.x, points.get(0).y * settings.zoom - settings.y);
+		path.moveTo(points.get(0).x * context.zoom - context.x, points.get(0).y * context.zoom - context.y);
 		for (int i = 1; i < points.size(); ++i) {
-			path.lineTo(points.get(i).x * settings.zoom - settings.x, points.get(i).y * settings.zoom - settings.y);
+			path.lineTo(points.get(i).x * context.zoom - context.x, points.get(i).y * context.zoom - context.y);
 		}
 		path.closePath();
 				
-		internalGraphics2D.setColor(new Color(parent.isSelected() ? 0xFF5500 : fillColour));
+		internalGraphics2D.setColor(RenderStateCache.colour(parent.isSelected() ? 0xFF5500 : fillColour));
 		internalGraphics2D.fill(path);
-		internalGraphics2D.setColor(new Color(parent.isSelected() ? 0xFF0000 : outlineColour));
-		internalGraphics2D.setStroke(new BasicStroke((float) (width * settings.zoom)));
+		internalGraphics2D.setColor(RenderStateCache.colour(parent.isSelected() ? 0xFF0000 : outlineColour));
+		internalGraphics2D.setStroke(RenderStateCache.stroke((float) (width * context.zoom)));
 		internalGraphics2D.draw(path);
 		
-		if (showingHints()) {
-			internalGraphics2D.setColor(new Color(0x00A000));
-			internalGraphics2D.setStroke(new BasicStroke((float) 1.0));
-			internalGraphics2D.drawRect((int) (getX() * settings.zoom - settings.x), (int) (getY() * settings.zoom - settings.y), (int) (getWidth() * settings.zoom), (int) (getHeight() * settings.zoom));
+		if (context.showingPrimaryAxisHint) {
+			internalGraphics2D.setColor(RenderStateCache.colour(0x00A000));
+			internalGraphics2D.setStroke(RenderStateCache.stroke((float) 1.0));
+			internalGraphics2D.drawRect((int) (getX() * context.zoom - context.x), (int) (getY() * context.zoom - context.y), (int) (getWidth() * context.zoom), (int) (getHeight() * context.zoom));
+		}
+	}
+
+	@Override
+	public void write(VectorWriter out) throws IOException {
+		Path2D path = new Path2D.Double();
+		path.moveTo(points.get(0).x, points.get(0).y);
+		for (int i = 1; i < points.size(); ++i) {
+			path.lineTo(points.get(i).x, points.get(i).y);
 		}
+		path.closePath();
+
+		out.fill(path, parent.isSelected() ? 0xFF5500 : fillColour);
+		out.stroke(path, parent.isSelected() ? 0xFF0000 : outlineColour, RenderStateCache.stroke((float) width));
 	}
 
 	@Override
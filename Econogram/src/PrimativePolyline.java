@@ -0,0 +1,185 @@
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Path2D;
+import java.util.Arrays;
+import java.io.IOException;
+
+//a whole curve made of lots of short segments, drawn as one path instead of one PrimativeLine each.
+//hit testing still looks at individual segments, using the bounding box of each chunk of them to skip most of the curve
+public class PrimativePolyline extends DrawPrimative {
+	static final int SEGMENTS_PER_CHUNK = 32;
+
+	//x1, y1, x2, y2 for each segment, in document units
+	double[] segments = new double[64];
+	int segmentCount = 0;
+
+	//minX, minY, maxX, maxY for each chunk of SEGMENTS_PER_CHUNK segments
+	double[] chunkBounds = new double[16];
+
+	double minX = Double.MAX_VALUE;
+	double minY = Double.MAX_VALUE;
+	double maxX = -Double.MAX_VALUE;
+	double maxY = -Double.MAX_VALUE;
+
+	Path2D.Double path = new Path2D.Double();
+
+	int colour;
+	double width;
+
+	public PrimativePolyline(DrawObject parent) {
+		super(parent);
+
+		colour = 0x000000;
+		width = 3.0;
+	}
+
+	public void addSegment(Coordinate p1, Coordinate p2) {
+		if ((segmentCount + 1) * 4 > segments.length) {
+			segments = Arrays.copyOf(segments, segments.length * 2);
+		}
+
+		int i = segmentCount * 4;
+		segments[i] = p1.x;
+		segments[i + 1] = p1.y;
+		segments[i + 2] = p2.x;
+		segments[i + 3] = p2.y;
+
+		//carry on from where the last segment finished if we can, so the joins get drawn properly
+		if (segmentCount == 0 || segments[i - 2] != p1.x || segments[i - 1] != p1.y) {
+			path.moveTo(p1.x, p1.y);
+		}
+		path.lineTo(p2.x, p2.y);
+
+		int chunk = segmentCount / SEGMENTS_PER_CHUNK;
+		if ((chunk + 1) * 4 > chunkBounds.length) {
+			chunkBounds = Arrays.copyOf(chunkBounds, chunkBounds.length * 2);
+		}
+		if (segmentCount % SEGMENTS_PER_CHUNK == 0) {
+			chunkBounds[chunk * 4] = Double.MAX_VALUE;
+			chunkBounds[chunk * 4 + 1] = Double.MAX_VALUE;
+			chunkBounds[chunk * 4 + 2] = -Double.MAX_VALUE;
+			chunkBounds[chunk * 4 + 3] = -Double.MAX_VALUE;
+		}
+		chunkBounds[chunk * 4] = Math.min(chunkBounds[chunk * 4], Math.min(p1.x, p2.x));
+		chunkBounds[chunk * 4 + 1] = Math.min(chunkBounds[chunk * 4 + 1], Math.min(p1.y, p2.y));
+		chunkBounds[chunk * 4 + 2] = Math.max(chunkBounds[chunk * 4 + 2], Math.max(p1.x, p2.x));
+		chunkBounds[chunk * 4 + 3] = Math.max(chunkBounds[chunk * 4 + 3], Math.max(p1.y, p2.y));
+
+		minX = Math.min(minX, chunkBounds[chunk * 4]);
+		minY = Math.min(minY, chunkBounds[chunk * 4 + 1]);
+		maxX = Math.max(maxX, chunkBounds[chunk * 4 + 2]);
+		maxY = Math.max(maxY, chunkBounds[chunk * 4 + 3]);
+
+		++segmentCount;
+	}
+
+	public int getSegmentCount() {
+		return segmentCount;
+	}
+
+	@Override
+	public void draw(RenderContext context) {
+		if (segmentCount == 0) {
+			return;
+		}
+
+		Graphics2D internalGraphics2D = context.graphics;
+
+		//the path is in document units, so draw it through the zoom and pan rather than making a new one each time
+		AffineTransform oldTransform = internalGraphics2D.getTransform();
+		internalGraphics2D.translate(-context.x, -context.y);
+		internalGraphics2D.scale(context.zoom, context.zoom);
+		internalGraphics2D.setColor(RenderStateCache.colour(parent.isSelected() ? 0xFF5500 : colour));
+		internalGraphics2D.setStroke(RenderStateCache.stroke((float) width));
+		internalGraphics2D.draw(path);
+		internalGraphics2D.setTransform(oldTransform);
+
+		if (context.showingPrimaryAxisHint) {
+			internalGraphics2D.setColor(RenderStateCache.colour(0x00A0A0));
+			internalGraphics2D.setStroke(RenderStateCache.stroke((float) 0.5));
+
+			for (int i = 0; i < segmentCount * 4; i += 4) {
+				double x1 = segments[i] * context.zoom - context.x;
+				double y1 = segments[i + 1] * context.zoom - context.y;
+				double x2 = segments[i + 2] * context.zoom - context.x;
+				double y2 = segments[i + 3] * context.zoom - context.y;
+
+				double left = x1 < x2 ? x1 : x2;
+				double top = y1 < y2 ? y1 : y2;
+				double right = x1 > x2 ? x1 : x2;
+				double bottom = y1 > y2 ? y1 : y2;
+
+				internalGraphics2D.drawRect((int) left, (int) top, (int) (right - left + 1), (int) (bottom - top + 1));
+			}
+		}
+	}
+
+	//the path is already in document units, so it can go out as it is
+	@Override
+	public void write(VectorWriter out) throws IOException {
+		if (segmentCount == 0) {
+			return;
+		}
+
+		out.stroke(path, parent.isSelected() ? 0xFF5500 : colour, RenderStateCache.stroke((float) width));
+	}
+
+	static double distanceToSegment(double x, double y, double x1, double y1, double x2, double y2) {
+		double dx = x2 - x1;
+		double dy = y2 - y1;
+		double lengthSquared = dx * dx + dy * dy;
+
+		double t = lengthSquared == 0 ? 0 : ((x - x1) * dx + (y - y1) * dy) / lengthSquared;
+		if (t < 0) t = 0;
+		if (t > 1) t = 1;
+
+		double nearestX = x1 + t * dx - x;
+		double nearestY = y1 + t * dy - y;
+		return Math.sqrt(nearestX * nearestX + nearestY * nearestY);
+	}
+
+	//distance from the edge of the stroke of the nearest segment, only looking at chunks that could be nearer than the best so far
+	@Override
+	public double distanceTo(double x, double y) {
+		double best = Double.MAX_VALUE;
+
+		int chunks = (segmentCount + SEGMENTS_PER_CHUNK - 1) / SEGMENTS_PER_CHUNK;
+		for (int chunk = 0; chunk < chunks; ++chunk) {
+			double dx = Math.max(0, Math.max(chunkBounds[chunk * 4] - x, x - chunkBounds[chunk * 4 + 2]));
+			double dy = Math.max(0, Math.max(chunkBounds[chunk * 4 + 1] - y, y - chunkBounds[chunk * 4 + 3]));
+			if (dx * dx + dy * dy >= best * best) {
+				continue;
+			}
+
+			int end = Math.min(segmentCount, (chunk + 1) * SEGMENTS_PER_CHUNK) * 4;
+			for (int i = chunk * SEGMENTS_PER_CHUNK * 4; i < end; i += 4) {
+				double distance = distanceToSegment(x, y, segments[i], segments[i + 1], segments[i + 2], segments[i + 3]);
+				if (distance < best) {
+					best = distance;
+				}
+			}
+		}
+
+		return best - width / 2;
+	}
+
+	@Override
+	public double getWidth() {
+		return segmentCount == 0 ? 0 : maxX - minX + 2 * width;
+	}
+
+	@Override
+	public double getHeight() {
+		return segmentCount == 0 ? 0 : maxY - minY + 2 * width;
+	}
+
+	@Override
+	public double getX() {
+		return segmentCount == 0 ? 0 : minX - width;
+	}
+
+	@Override
+	public double getY() {
+		return segmentCount == 0 ? 0 : minY - width;
+	}
+}
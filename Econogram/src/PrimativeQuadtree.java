@@ -0,0 +1,142 @@
+import java.util.ArrayList;
+import java.util.List;
+
+//loose quadtree over the hit testing boxes of primatives, so clicking only has to look at what's near the mouse.
+//each entry lives in the smallest node that completely contains it, and anything outside the root just stays in the root.
+public class PrimativeQuadtree {
+	static final double ROOT_X = -4096.0;
+	static final double ROOT_Y = -4096.0;
+	static final double ROOT_SIZE = 16384.0;
+	static final int MAX_DEPTH = 10;
+
+	static class Entry {
+		DrawPrimative primative;
+		DrawObject owner;		//the object that added it to its render (rather than one of the owner's children)
+		int order;				//position within the owner's render, used to keep the original paint order on ties
+		boolean afterChildren;	//whether the owner added it after drawing its children
+
+		//the box it was inserted with, as the primative itself may have moved by the time it gets removed
+		double x;
+		double y;
+		double w;
+		double h;
+
+		Entry(DrawPrimative p, DrawObject o, int i, boolean after) {
+			primative = p;
+			owner = o;
+			order = i;
+			afterChildren = after;
+			x = p.getX();
+			y = p.getY();
+			w = p.getWidth();
+			h = p.getHeight();
+		}
+	}
+
+	class Node {
+		double x;
+		double y;
+		double size;
+		int depth;
+		Node[] quadrants = null;
+		List<Entry> entries = new ArrayList<Entry>();
+
+		Node(double x, double y, double size, int depth) {
+			this.x = x;
+			this.y = y;
+			this.size = size;
+			this.depth = depth;
+		}
+
+		//returns the quadrant that completely contains the box, or -1 if it straddles the middle (or is outside us)
+		int quadrantFor(double bx, double by, double bw, double bh) {
+			double half = size / 2;
+			double midX = x + half;
+			double midY = y + half;
+
+			if (bx < x || by < y || bx + bw > x + size || by + bh > y + size) {
+				return -1;
+			}
+
+			int q;
+			if (bx + bw < midX) {
+				q = 0;
+			} else if (bx >= midX) {
+				q = 1;
+			} else {
+				return -1;
+			}
+
+			if (by + bh < midY) {
+				return q;
+			} else if (by >= midY) {
+				return q + 2;
+			}
+			return -1;
+		}
+
+		Node getQuadrant(int q) {
+			if (quadrants == null) {
+				double half = size / 2;
+				quadrants = new Node[4];
+				quadrants[0] = new Node(x, y, half, depth + 1);
+				quadrants[1] = new Node(x + half, y, half, depth + 1);
+				quadrants[2] = new Node(x, y + half, half, depth + 1);
+				quadrants[3] = new Node(x + half, y + half, half, depth + 1);
+			}
+			return quadrants[q];
+		}
+
+		void insert(Entry e) {
+			int q = depth < MAX_DEPTH ? quadrantFor(e.x, e.y, e.w, e.h) : -1;
+			if (q == -1) {
+				entries.add(e);
+			} else {
+				getQuadrant(q).insert(e);
+			}
+		}
+
+		boolean remove(Entry e) {
+			int q = depth < MAX_DEPTH ? quadrantFor(e.x, e.y, e.w, e.h) : -1;
+			if (q == -1 || quadrants == null) {
+				return entries.remove(e);
+			}
+			return quadrants[q].remove(e);
+		}
+
+		void query(double qx, double qy, double qw, double qh, List<Entry> results) {
+			for (Entry e : entries) {
+				if (e.x <= qx + qw && qx <= e.x + e.w && e.y <= qy + qh && qy <= e.y + e.h) {
+					results.add(e);
+				}
+			}
+
+			if (quadrants != null) {
+				for (Node n : quadrants) {
+					if (n.x <= qx + qw && qx <= n.x + n.size && n.y <= qy + qh && qy <= n.y + n.size) {
+						n.query(qx, qy, qw, qh, results);
+					}
+				}
+			}
+		}
+	}
+
+	Node root = new Node(ROOT_X, ROOT_Y, ROOT_SIZE, 0);
+
+	public void insert(Entry e) {
+		root.insert(e);
+	}
+
+	public void remove(Entry e) {
+		root.remove(e);
+	}
+
+	//adds everything whose box is within the given distance of the point to results
+	public void query(double px, double py, double distance, List<Entry> results) {
+		root.query(px - distance, py - distance, 2 * distance, 2 * distance, results);
+	}
+
+	public void clear() {
+		root = new Node(ROOT_X, ROOT_Y, ROOT_SIZE, 0);
+	}
+}
@@ -2,6 +2,7 @@
 import java.awt.*;
 import java.awt.geom.*;
 import javax.swing.*;
+import java.io.IOException;
 
 public class PrimativeText extends DrawPrimative {
 	protected Coordinate pos;
@@ -14,67 +15,74 @@ public class PrimativeText extends DrawPrimative {
 	
 	protected double radians = 0;
 
-	public boolean showingHints() {
-		return getParent().getCanvasParent().isShowingPrimaryAxisHint();
-	}
-	
+	//the text is measured (in pixels) at the zoom of the render it was made for, so that's needed to get back to document units
+	protected RenderContext measuredWith;
+
 	public double getRotation(double radians) {
 		return radians;
 	}
 	
 	public void setRotation(double radians) {
 		this.radians = radians;
+		setFontSize(size);
 	}
 	
 	public void setFontSize(double size) {
 		this.size = size;
 		
-		Graphics g = getParent().getCanvasParent().getGraphics();
-
-		Graphics2D internalGraphics2D = (Graphics2D) g;
-
-		Font normalFont = new Font("Arial", Font.PLAIN, (int) (size * getParent().getCanvasParent().zoomPanSettings.zoom));
-		AffineTransform affineTransform = new AffineTransform();
-		affineTransform.rotate(-radians, 0, 0);
-		Font rotatedFont = normalFont.deriveFont(affineTransform);
-		internalGraphics2D.setFont(rotatedFont);
-		internalGraphics2D.setColor(new Color(parent.isSelected() ? 0xFF5500 : colour));
-		prevWidth = internalGraphics2D.getFontMetrics().stringWidth(text);
+		prevWidth = measuredWith.horizontalAdvance((int) (size * measuredWith.zoom), radians, text);
 		prevHeight = size;
 	}
 	
-	public PrimativeText(DrawObject parent, String string, Coordinate position) {
+	static final double DEFAULT_FONT_SIZE = 20.0;
+	
+	public PrimativeText(DrawObject parent, String string, Coordinate position, RenderContext context) {
 		super(parent);
 
+		measuredWith = context;
 		pos = position;
 		colour = 0x000000;
 		text = string;
 		
-		setFontSize(20.0);
+		setFontSize(DEFAULT_FONT_SIZE);
 	}
 	
 	@Override
-	public void draw(Graphics g, ZoomPanSettings settings) {
-		double x = pos.x * settings.zoom - settings.x;
-		double y = pos.y * settings.zoom - settings.y;
+	public void draw(RenderContext context) {
+		double x = pos.x * context.zoom - context.x;
+		double y = pos.y * context.zoom - context.y;
 		
-		Graphics2D internalGraphics2D = (Graphics2D) g;
+		Graphics2D internalGraphics2D = context.graphics;
 
-		Font normalFont = new Font("Arial", Font.PLAIN, (int) (size * settings.zoom));
-		AffineTransform affineTransform = new AffineTransform();
-		affineTransform.rotate(-radians, 0, 0);
-		Font rotatedFont = normalFont.deriveFont(affineTransform);
-		internalGraphics2D.setFont(rotatedFont);
-		internalGraphics2D.setColor(new Color(parent.isSelected() ? 0xFF5500 : colour));
+		internalGraphics2D.setFont(RenderStateCache.font((int) (size * context.zoom), radians));
+		internalGraphics2D.setColor(RenderStateCache.colour(parent.isSelected() ? 0xFF5500 : colour));
 		internalGraphics2D.drawString(text, (int) x, (int) y);
-		prevWidth = internalGraphics2D.getFontMetrics().stringWidth(text);
-		prevHeight = size;
 		
-		if (showingHints()) {
-			internalGraphics2D.setColor(new Color(0x00A000));
-			internalGraphics2D.setStroke(new BasicStroke((float) 1.0));
-			internalGraphics2D.drawRect((int) x, (int) (y - getHeight() * settings.zoom), (int) (getWidth()), (int) (getHeight() * settings.zoom));
+		if (context.showingPrimaryAxisHint) {
+			internalGraphics2D.setColor(RenderStateCache.colour(0x00A000));
+			internalGraphics2D.setStroke(RenderStateCache.stroke((float) 1.0));
+			internalGraphics2D.drawRect((int) x, (int) (y - getHeight() * context.zoom), (int) (getWidth()), (int) (getHeight() * context.zoom));
+		}
+	}
+
+	//subscripts are already primatives of their own (smaller and lower down), so each one comes out as a separate run of text
+	@Override
+	public void write(VectorWriter out) throws IOException {
+		out.text(text, pos.x, pos.y, size, radians, parent.isSelected() ? 0xFF5500 : colour);
+	}
+
+	@Override
+	protected Rectangle2D.Double calculateBounds() {
+		//prevWidth is in on-screen pixels, whereas prevHeight is already in document units
+		double zoom = measuredWith.zoom;
+		double length = prevWidth / zoom;
+		
+		if (radians != 0) {
+			//the rotated font's metrics only give the horizontal advance (which is zero), so measure it upright instead
+			length = measuredWith.stringWidth((int) (size * zoom), text) / zoom;
+			return new Rectangle2D.Double(pos.x - prevHeight, pos.y - length, prevHeight, length);
 		}
+		return new Rectangle2D.Double(pos.x, pos.y - prevHeight, length, prevHeight);
 	}
 
 	@Override
@@ -1,57 +1,97 @@
 
 import javax.print.attribute.HashPrintRequestAttributeSet;
 import javax.swing.*;
-import java.awt.event.*;
 import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.geom.Rectangle2D;
 import java.awt.print.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
+//prints from a snapshot of the document on a thread of its own, so the user can carry on while it goes, with a progress
+//dialog that can cancel it. each page only draws what's on it, and what that is only gets worked out once, however many
+//times the print system asks for the page (it usually asks at least twice, and more if it prints the page in bands)
 public class PrintManager implements Printable {
+	static final double PRINT_ZOOM = 0.8;
+	//how often (in milliseconds) the progress dialog gets checked to see if it has been cancelled
+	static final int CANCEL_POLL_INTERVAL = 100;
+
 	Canvas canvas;
+	DocumentSnapshot snapshot;
 	boolean hasCalculatedPrint = false;
 	
+	Map<Integer, List<DrawPrimative>> pagePrimatives = new HashMap<Integer, List<DrawPrimative>>();
+	
+	PrinterJob job;
+	ProgressMonitor progress;
+	//copied from the progress dialog on the event dispatch thread, as the dialog can only be asked from there. it gets
+	//checked on a timer rather than when the pages change, as the print system can spend a long time asking for pages
+	//it has already had, and the last page is the slowest of all
+	volatile boolean cancelled = false;
+	Timer cancelPoll = new Timer(CANCEL_POLL_INTERVAL, new ActionListener() {
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			if (progress.isCanceled()) {
+				cancelPoll.stop();
+				cancelled = true;
+				job.cancel();
+			}
+		}
+	});
+	
 	PrintManager(Canvas c) {
 		canvas = c;
 	}
 	
 	void print() {
-		PrinterJob job = PrinterJob.getPrinterJob();
+		job = PrinterJob.getPrinterJob();
 		job.setPrintable(this);
 		
 		HashPrintRequestAttributeSet printParams = new HashPrintRequestAttributeSet();
 		boolean doPrint = job.printDialog(printParams);
-		if (doPrint) {
-			try {
-				prePrintAdjust();
-				job.print();
-				postPrintAdjust();
-				
-			} catch (PrinterException e) {
-		        JOptionPane.showMessageDialog(null, "An unknown error occured while trying to print.", "Printer Error", JOptionPane.ERROR_MESSAGE);
-			}
+		if (!doPrint) {
+			return;
 		}
-	}
-
-	boolean primaryHintOn;
-	boolean gridOn;
-	boolean parentOn;
-	double zoom;
-	
-	private void prePrintAdjust() {
-		primaryHintOn = canvas.showingPrimaryAxisHint;
-		gridOn = canvas.showingGrid;
-		parentOn = canvas.showingParentGuides;
-		canvas.showingParentGuides = false;
-		canvas.showingGrid = false;
-		canvas.showingPrimaryAxisHint = false;
-		zoom = canvas.zoomPanSettings.zoom;
-		canvas.zoomPanSettings.zoom = 0.8;
-	}
-	
-	private void postPrintAdjust() {
-		canvas.zoomPanSettings.zoom = zoom;
-		canvas.showingPrimaryAxisHint = primaryHintOn;
-		canvas.showingGrid = gridOn;
-		canvas.showingParentGuides = parentOn;
+		
+		//taken here, as it has to be made on the event dispatch thread. the document can be changed as much as the user likes
+		//after this without it affecting what gets printed
+		snapshot = new DocumentSnapshot(canvas, PRINT_ZOOM);
+		
+		progress = new ProgressMonitor(canvas, "Printing...", "Preparing", 0, 1);
+		cancelled = false;
+		cancelPoll.start();
+		
+		new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					job.print();
+					
+				} catch (PrinterAbortException e) {
+					//cancelled from the progress dialog, which doesn't need telling about
+					
+				} catch (PrinterException e) {
+					SwingUtilities.invokeLater(new Runnable() {
+						@Override
+						public void run() {
+					        JOptionPane.showMessageDialog(null, "An unknown error occured while trying to print.", "Printer Error", JOptionPane.ERROR_MESSAGE);
+						}
+					});
+					
+				} finally {
+					SwingUtilities.invokeLater(new Runnable() {
+						@Override
+						public void run() {
+							cancelPoll.stop();
+							progress.close();
+						}
+					});
+				}
+			}
+		}, "Print").start();
 	}
 	
 	int calculatedPagesWidth;
@@ -65,8 +105,8 @@ public class PrintManager implements Printable {
 		paperWidth = pageFormat.getWidth();			//in 1/72nds of an inch
 		paperHeight = pageFormat.getHeight();		//in 1/72nds of an inch
 		
-		double documentWidth = canvas.getPrintUsedWidth() * canvas.zoomPanSettings.zoom;
-		double documentHeight = canvas.getPrintUsedHeight() * canvas.zoomPanSettings.zoom;
+		double documentWidth = snapshot.getPrintUsedWidth() * PRINT_ZOOM;
+		double documentHeight = snapshot.getPrintUsedHeight() * PRINT_ZOOM;
 		
 		calculatedPagesWidth = (int) Math.ceil(documentWidth / paperWidth);
 		calculatedPagesHeight = (int) Math.ceil(documentHeight / paperHeight);
@@ -75,27 +115,77 @@ public class PrintManager implements Printable {
 		hasCalculatedPrint = true;
 	}
 	
+	//the part of the (zoomed) document that goes on the page
+	Rectangle2D.Double getPageRect(int page) {
+		int pageX = page % calculatedPagesWidth;
+		int pageY = page / calculatedPagesWidth;
+		return new Rectangle2D.Double(paperWidth * pageX, paperHeight * pageY, paperWidth, paperHeight);
+	}
+	
+	List<DrawPrimative> getPagePrimatives(int page) {
+		List<DrawPrimative> primatives = pagePrimatives.get(page);
+		
+		if (primatives == null) {
+			primatives = new ArrayList<DrawPrimative>();
+			
+			Rectangle2D.Double visible = Canvas.getVisibleDocumentRect(getPageRect(page).getBounds(), snapshot.getRenderContext());
+			for (DrawPrimative primative : snapshot.getPrimatives()) {
+				if (Canvas.overlaps(primative.getBounds(), visible)) {
+					primatives.add(primative);
+				}
+			}
+			
+			pagePrimatives.put(page, primatives);
+			showProgress(page);
+		}
+		
+		return primatives;
+	}
+	
+	void showProgress(int page) {
+		int total = calculatedTotalPages;
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				progress.setMaximum(total);
+				progress.setNote(String.format("Page %d of %d", page + 1, total));
+				progress.setProgress(page);
+			}
+		});
+	}
+	
 	@Override
 	public int print(Graphics g, PageFormat pageFormat, int page) throws PrinterException {
 		if (!hasCalculatedPrint) {
 			calculatePrint(g, pageFormat);
 		}
 		
+		if (cancelled) {
+			job.cancel();
+			return NO_SUCH_PAGE;
+		}
+		
 		if (page >= calculatedTotalPages) {
 			return NO_SUCH_PAGE;
 		}
 		
-		int pageX = page % calculatedPagesWidth;
-		int pageY = page / calculatedPagesWidth;
+		List<DrawPrimative> primatives = getPagePrimatives(page);
+		Rectangle2D.Double pageRect = getPageRect(page);
 
 		Graphics2D graphics2D = (Graphics2D) g;
 				
-		graphics2D.translate(-paperWidth * pageX, -paperHeight * pageY);
+		graphics2D.translate(-pageRect.x, -pageRect.y);
+		graphics2D.clip(pageRect);
 
 	    graphics2D.setColor(Color.WHITE);
-	    graphics2D.fillRect(0, 0, (int)(canvas.getUsedWidth() * canvas.zoomPanSettings.zoom), (int)(canvas.getUsedHeight() * canvas.zoomPanSettings.zoom));
-	    canvas.printAll(graphics2D);
+	    graphics2D.fill(pageRect);
+	    RenderStateCache.applyHints(graphics2D);
+	    
+	    RenderContext context = snapshot.getRenderContext().withGraphics(graphics2D);
+	    for (DrawPrimative primative : primatives) {
+	    	primative.draw(context);
+	    }
 		
 		return PAGE_EXISTS;	
 	}
-}
\ No newline at end of file
+}
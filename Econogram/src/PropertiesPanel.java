@@ -11,8 +11,16 @@ public class PropertiesPanel extends JPanel {
 	DrawObject object;
 	PropertyEntryPanel doubleClickPanel;
 	
+	//what the components on screen were built for. as long as it's the same object with the same entries, new values just
+	//get pushed into them rather than building everything again (which would happen on every drag and nudge otherwise)
+	DrawObject boundObject;
+	List<PropertyEntry> boundEntries;
+	JLabel titleLine;
+	
 	void detach() {
 		doubleClickPanel = null;
+		boundObject = null;
+		boundEntries = null;
 		if (object != null) {
 			object.markSelected(false);
 		}
@@ -36,18 +44,54 @@ public class PropertiesPanel extends JPanel {
 		}
 	}
 	
-	void regenerate() {
-		doubleClickPanel = null;
-		removeAll();
-		validate();
-		super.repaint();
+	//the listeners on each component are tied to the object and entry they were made for, so it can only be done in place
+	//for the same object, and only if it has asked for exactly the same kinds of entry as before
+	boolean rebind(List<PropertyEntry> properties) {
+		if (object != boundObject || boundEntries == null || properties.size() != boundEntries.size()) {
+			return false;
+		}
+		
+		for (int i = 0; i < properties.size(); ++i) {
+			PropertyEntry bound = boundEntries.get(i);
+			PropertyEntry newer = properties.get(i);
+			if (bound.getClass() != newer.getClass() || !bound.id.equals(newer.id)) {
+				return false;
+			}
+		}
+		
+		//some entries call back into the object when their value changes, so it needs to be looking at these ones first
+		for (PropertyEntry bound : boundEntries) {
+			object.propertyEntryRebound(bound);
+		}
+		
+		for (int i = 0; i < properties.size(); ++i) {
+			if (!boundEntries.get(i).pushValue(properties.get(i))) {
+				return false;
+			}
+		}
+		
+		titleLine.setText(object.getName());
 		
+		return true;
+	}
+	
+	void regenerate() {
 		if (object == null) {
 			detach();
 			return;
 		}
 		
-		JLabel titleLine = new JLabel(object.getName());
+		List<PropertyEntry> properties = object.getPropertiesPanelLayout();
+		if (rebind(properties)) {
+			return;
+		}
+		
+		doubleClickPanel = null;
+		removeAll();
+		validate();
+		super.repaint();
+		
+		titleLine = new JLabel(object.getName());
 		titleLine.setFont(new Font(titleLine.getFont().getFamily(), Font.BOLD, 16));
 		add(titleLine, BorderLayout.NORTH);
 		
@@ -58,28 +102,30 @@ public class PropertiesPanel extends JPanel {
 		subPanel.setLayout(layout);
 		add(subPanel, BorderLayout.WEST);
 		
-		List<PropertyEntry> properties = object.getPropertiesPanelLayout();
 		for (PropertyEntry property : properties) {
 			c.gridx = 0;
 			c.gridy++;
 			PropertyEntryPanel panel = property.producePanel(object);
+			object.propertyEntryRebound(property);
 			if (doubleClickPanel == null && panel.doubleClickHandler != null) {
 				doubleClickPanel = panel;
 			}
 			subPanel.add(panel, c);
 		}
+		boundObject = object;
+		boundEntries = properties;
 		
 		validate();
 	}
 	
 	void attach(DrawObject obj) {
-		doubleClickPanel = null;
 		if (object != null) {
 			object.markSelected(false);
 		}
 		obj.markSelected(true);
 
 		if (obj == object) return;
+		doubleClickPanel = null;
 				
 		removeAll();
 		validate();
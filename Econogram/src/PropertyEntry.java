@@ -5,6 +5,12 @@ public abstract class PropertyEntry {
 	
 	abstract PropertyEntryPanel producePanel(DrawObject obj);
 	
+	//takes the value from a newer entry for the same property and puts it into the component that's already on screen,
+	//so the panel doesn't need building again. returns false if that can't be done, in which case it gets rebuilt instead
+	boolean pushValue(PropertyEntry newer) {
+		return false;
+	}
+	
 	PropertyEntry(String id) {
 		this.id = id;
 	}
@@ -10,6 +10,23 @@ public class PropertyEntryCheckbox extends PropertyEntry {
 	boolean selected;
 	
 	PropertyEntryCheckbox self;
+	JCheckBox checkBox;
+	boolean listenersBlocked = false;
+	
+	@Override
+	boolean pushValue(PropertyEntry newer) {
+		if (!(newer instanceof PropertyEntryCheckbox) || checkBox == null) {
+			return false;
+		}
+		
+		selected = ((PropertyEntryCheckbox) newer).selected;
+		if (checkBox.isSelected() != selected) {
+			listenersBlocked = true;
+			checkBox.setSelected(selected);
+			listenersBlocked = false;
+		}
+		return true;
+	}
 		
 	PropertyEntryPanel producePanel(DrawObject obj) {
 		PropertyEntryPanel panel = new PropertyEntryPanel();
@@ -25,13 +42,16 @@ public class PropertyEntryCheckbox extends PropertyEntry {
 		JLabel val = new JLabel(displayText, JLabel.LEFT);
 		val.setFont(new Font("Courier New", Font.PLAIN, 12));
 		
-		JCheckBox checkBox = new JCheckBox();
+		checkBox = new JCheckBox();
 		checkBox.setSelected(selected);
 	
 		checkBox.addChangeListener(new ChangeListener() {
 
 			@Override
 			public void stateChanged(ChangeEvent e) {
+				if (listenersBlocked) {
+					return;
+				}
 				obj.getCanvasParent().econogram.actionManager.add(new Action() {
 					
 					@Override
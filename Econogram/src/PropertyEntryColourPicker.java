@@ -7,6 +7,18 @@ public class PropertyEntryColourPicker extends PropertyEntry {
 	String displayText;
 	int colour;
 	PropertyEntryColourPicker self;
+	JLabel colbox;
+	
+	@Override
+	boolean pushValue(PropertyEntry newer) {
+		if (!(newer instanceof PropertyEntryColourPicker) || colbox == null) {
+			return false;
+		}
+		
+		colour = ((PropertyEntryColourPicker) newer).colour;
+		colbox.setForeground(new Color(colour));
+		return true;
+	}
 	
 	PropertyEntryPanel producePanel(DrawObject obj) {
 		PropertyEntryPanel panel = new PropertyEntryPanel();
@@ -20,7 +32,7 @@ public class PropertyEntryColourPicker extends PropertyEntry {
 		JLabel label = new JLabel(displayText, JLabel.RIGHT);
 		label.setFont(new Font("Courier New", Font.PLAIN, 12));
 
-		JLabel colbox = new JLabel("######  ", JLabel.LEFT);
+		colbox = new JLabel("######  ", JLabel.LEFT);
 		colbox.setForeground(new Color(colour));
 		colbox.setFont(new Font("Courier New", Font.BOLD, 12));
 
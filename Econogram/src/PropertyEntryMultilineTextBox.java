@@ -25,6 +25,22 @@ public class PropertyEntryMultilineTextBox extends PropertyEntry {
 		return field;
 	}
 	
+	@Override
+	boolean pushValue(PropertyEntry newer) {
+		if (!(newer instanceof PropertyEntryMultilineTextBox) || field == null) {
+			return false;
+		}
+		
+		String newText = ((PropertyEntryMultilineTextBox) newer).dataText;
+		if (!newText.equals(field.getText())) {
+			blockListeners(true);
+			field.setText(newText);
+			blockListeners(false);
+		}
+		dataText = newText;
+		return true;
+	}
+	
 	PropertyEntryPanel producePanel(DrawObject obj) {
 		PropertyEntryPanel panel = new PropertyEntryPanel();
 		GridBagLayout layout = new GridBagLayout();
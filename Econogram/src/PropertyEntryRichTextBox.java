@@ -22,6 +22,9 @@ public class PropertyEntryRichTextBox extends PropertyEntry {
 	
 	boolean listenersBlocked = false;
 	
+	//the field gives back a whole html document rather than what was put into it, so this is what to compare new values with
+	String shownText;
+	
 	void blockListeners(boolean state)  {
 		listenersBlocked = state;
 	}
@@ -30,6 +33,23 @@ public class PropertyEntryRichTextBox extends PropertyEntry {
 		return field;
 	}
 	
+	@Override
+	boolean pushValue(PropertyEntry newer) {
+		if (!(newer instanceof PropertyEntryRichTextBox) || field == null) {
+			return false;
+		}
+		
+		String newText = ((PropertyEntryRichTextBox) newer).dataText;
+		if (!newText.equals(shownText)) {
+			blockListeners(true);
+			field.setText(newText);
+			blockListeners(false);
+			shownText = newText;
+			dataText = newText;
+		}
+		return true;
+	}
+	
 	PropertyEntryPanel producePanel(DrawObject obj) {
 		PropertyEntryPanel panel = new PropertyEntryPanel();
 		GridBagLayout layout = new GridBagLayout();
@@ -45,6 +65,7 @@ public class PropertyEntryRichTextBox extends PropertyEntry {
 		field.setContentType("text/html");
 		field.setFont(new Font("Courier New", Font.PLAIN, 12));
 		field.setText(dataText);
+		shownText = dataText;
 		
 		field.addCaretListener(new CaretListener() {
 			@Override
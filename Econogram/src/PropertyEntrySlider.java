@@ -21,6 +21,43 @@ public class PropertyEntrySlider extends PropertyEntry {
 	
 	boolean disabled;
 	
+	PEJSliderOverride slider;
+	boolean listenersBlocked = false;
+	
+	int sliderPosition(double v) {
+		return (int)((v - min) / (max - min) * 100000.0);
+	}
+	
+	@Override
+	boolean pushValue(PropertyEntry newer) {
+		if (!(newer instanceof PropertyEntrySlider) || slider == null) {
+			return false;
+		}
+		
+		PropertyEntrySlider other = (PropertyEntrySlider) newer;
+		if (other.min != min || other.max != max) {
+			return false;
+		}
+		
+		value = other.value;
+		disabled = other.disabled;
+		slider.setEnabled(!disabled);
+		
+		if (slider.getValue() != sliderPosition(value)) {
+			listenersBlocked = true;
+			slider.setValue(sliderPosition(value));
+			listenersBlocked = false;
+			
+			//the same as when the panel gets made, so undoing goes back to here rather than to wherever it was last built
+			slider.hasOldValue = false;
+			val.setText(String.format("%.1f", ((double) slider.getValue()) / 100000.0 * (max - min) + min));
+			if (textUpdateAction != null && !disabled) {
+				textUpdateAction.execute();
+			}
+		}
+		return true;
+	}
+	
 	public JLabel getJLabel() {
 		return val;
 	}
@@ -38,10 +75,10 @@ public class PropertyEntrySlider extends PropertyEntry {
 
 		val.setFont(new Font("Courier New", Font.PLAIN, 12));
 		
-		PEJSliderOverride slider = new PEJSliderOverride();
+		slider = new PEJSliderOverride();
 		slider.setMinimum(0);
 		slider.setMaximum(100000);
-		slider.setValue((int)((value - min) / (max - min) * 100000.0));
+		slider.setValue(sliderPosition(value));
 		slider.setPreferredSize(new Dimension(120, 30));
 		slider.setSnapToTicks(true);
 		slider.setMajorTickSpacing((int) major);
@@ -54,6 +91,9 @@ public class PropertyEntrySlider extends PropertyEntry {
 
 			@Override
 			public void stateChanged(ChangeEvent e) {
+				if (listenersBlocked) {
+					return;
+				}
 				obj.getCanvasParent().econogram.actionManager.add(new Action() {
 					
 					@Override
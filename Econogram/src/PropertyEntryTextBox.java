@@ -22,6 +22,22 @@ public class PropertyEntryTextBox extends PropertyEntry {
 		return field;
 	}
 	
+	@Override
+	boolean pushValue(PropertyEntry newer) {
+		if (!(newer instanceof PropertyEntryTextBox) || field == null) {
+			return false;
+		}
+		
+		String newText = ((PropertyEntryTextBox) newer).dataText;
+		if (!newText.equals(field.getText())) {
+			blockListeners(true);
+			field.setText(newText);
+			blockListeners(false);
+		}
+		dataText = newText;
+		return true;
+	}
+	
 	PropertyEntryPanel producePanel(DrawObject obj) {
 		PropertyEntryPanel panel = new PropertyEntryPanel();
 		GridBagLayout layout = new GridBagLayout();
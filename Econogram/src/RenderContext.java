@@ -0,0 +1,69 @@
+import java.awt.Graphics2D;
+import java.awt.font.FontRenderContext;
+
+//everything rendering and drawing needs to know about where it's going (the zoom, pan, what's being shown and how text is
+//measured), so none of it has to be read from the canvas. it never changes once it's made, so any number of renders can each
+//have their own at the same time (e.g. the screen, an export and a print), without any of them having to change the canvas
+//to get what they want and then put it back afterwards
+public class RenderContext {
+	final double zoom;
+	final double x;
+	final double y;
+
+	final boolean showingGrid;
+	final boolean showingParentGuides;
+	final boolean showingPrimaryAxisHint;
+
+	final FontRenderContext fontRenderContext;
+
+	//what draw() draws on. getRender() doesn't need it, so it's left out (null) for contexts that are only used for that
+	final Graphics2D graphics;
+
+	public RenderContext(double zoom, double x, double y, boolean showingGrid, boolean showingParentGuides, boolean showingPrimaryAxisHint,
+						 FontRenderContext fontRenderContext, Graphics2D graphics) {
+		this.zoom = zoom;
+		this.x = x;
+		this.y = y;
+		this.showingGrid = showingGrid;
+		this.showingParentGuides = showingParentGuides;
+		this.showingPrimaryAxisHint = showingPrimaryAxisHint;
+		this.fontRenderContext = fontRenderContext;
+		this.graphics = graphics;
+	}
+
+	//just the document at the given zoom, without any of the things that only help with editing it
+	static RenderContext forExport(double zoom) {
+		return new RenderContext(zoom, 0, 0, false, false, false, TextMetrics.FONT_RENDER_CONTEXT, null);
+	}
+
+	public RenderContext withGraphics(Graphics2D graphics) {
+		return new RenderContext(zoom, x, y, showingGrid, showingParentGuides, showingPrimaryAxisHint, fontRenderContext, graphics);
+	}
+
+	public RenderContext withPan(double x, double y) {
+		return new RenderContext(zoom, x, y, showingGrid, showingParentGuides, showingPrimaryAxisHint, fontRenderContext, graphics);
+	}
+
+	//whether getRender() comes out the same for both, which is everything apart from the pan and what's being drawn on
+	public boolean rendersLike(RenderContext other) {
+		return other != null && zoom == other.zoom && showingParentGuides == other.showingParentGuides && 
+			   showingPrimaryAxisHint == other.showingPrimaryAxisHint && fontRenderContext.equals(other.fontRenderContext);
+	}
+
+	public double getZoom() {
+		return zoom;
+	}
+
+	public Graphics2D getGraphics() {
+		return graphics;
+	}
+
+	//the width in pixels of some text in (upright) Arial at the given pixel size
+	public int stringWidth(int size, String text) {
+		return TextMetrics.stringWidth(fontRenderContext, size, text);
+	}
+
+	public int horizontalAdvance(int size, double radians, String text) {
+		return TextMetrics.horizontalAdvance(fontRenderContext, size, radians, text);
+	}
+}
@@ -0,0 +1,32 @@
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+
+//how carefully things get drawn. full quality is what the document really looks like, whereas draft is for while the user is
+//in the middle of dragging, panning or zooming, when keeping up with the mouse matters more than the edges being smooth
+public class RenderQuality {
+	final boolean antialiasing;
+	final boolean pureStrokes;
+	final boolean antialiasedText;
+	final boolean preferSpeed;
+
+	//full quality is exactly what everything has always been drawn with
+	public static final RenderQuality FULL = new RenderQuality(true, true, true, false);
+	public static final RenderQuality DRAFT = new RenderQuality(false, false, false, true);
+
+	public RenderQuality(boolean antialiasing, boolean pureStrokes, boolean antialiasedText, boolean preferSpeed) {
+		this.antialiasing = antialiasing;
+		this.pureStrokes = pureStrokes;
+		this.antialiasedText = antialiasedText;
+		this.preferSpeed = preferSpeed;
+	}
+
+	public void apply(Graphics2D g) {
+		g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, pureStrokes ? RenderingHints.VALUE_STROKE_PURE : RenderingHints.VALUE_STROKE_NORMALIZE);
+		g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, antialiasing ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF);
+
+		//by default text follows whatever everything else does, which is what full quality has always done
+		Object text = !antialiasedText ? RenderingHints.VALUE_TEXT_ANTIALIAS_OFF : antialiasing ? RenderingHints.VALUE_TEXT_ANTIALIAS_DEFAULT : RenderingHints.VALUE_TEXT_ANTIALIAS_ON;
+		g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, text);
+		g.setRenderingHint(RenderingHints.KEY_RENDERING, preferSpeed ? RenderingHints.VALUE_RENDER_SPEED : RenderingHints.VALUE_RENDER_DEFAULT);
+	}
+}
@@ -0,0 +1,96 @@
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+
+//shares the Colors, strokes and fonts that primatives draw with, so painting a frame doesn't have to make new ones for every primative.
+//each kind of object lives in a small direct mapped table, so a lookup that hits doesn't allocate anything, and one that collides just
+//replaces whatever was in that slot (which keeps the size bounded without needing any housekeeping). the entries are immutable, so
+//it's safe to use from more than one thread at once (e.g. when exporting)
+public class RenderStateCache {
+	static final int SLOTS = 512;		//per kind of object, must be a power of two
+
+	static class Entry {
+		final long key;
+		final Object value;
+
+		Entry(long key, Object value) {
+			this.key = key;
+			this.value = value;
+		}
+	}
+
+	static final Entry[] colours = new Entry[SLOTS];
+	static final Entry[] strokes = new Entry[SLOTS];
+	static final Entry[] dashedStrokes = new Entry[SLOTS];
+	static final Entry[] fonts = new Entry[SLOTS];
+
+	static int slotFor(long key) {
+		key ^= key >>> 33;
+		key *= 0xFF51AFD7ED558CCDL;
+		key ^= key >>> 33;
+		return (int) key & (SLOTS - 1);
+	}
+
+	static Object lookup(Entry[] table, long key) {
+		Entry e = table[slotFor(key)];
+		return e != null && e.key == key ? e.value : null;
+	}
+
+	static void store(Entry[] table, long key, Object value) {
+		table[slotFor(key)] = new Entry(key, value);
+	}
+
+	public static Color colour(int rgb) {
+		Color c = (Color) lookup(colours, rgb);
+		if (c == null) {
+			c = new Color(rgb);
+			store(colours, rgb, c);
+		}
+		return c;
+	}
+
+	public static BasicStroke stroke(float width) {
+		long key = Float.floatToIntBits(width);
+		BasicStroke s = (BasicStroke) lookup(strokes, key);
+		if (s == null) {
+			s = new BasicStroke(width);
+			store(strokes, key, s);
+		}
+		return s;
+	}
+
+	//the dashed stroke used by guide lines
+	public static BasicStroke dashedStroke(int width, float dashLength) {
+		long key = ((long) width << 32) | (Float.floatToIntBits(dashLength) & 0xFFFFFFFFL);
+		BasicStroke s = (BasicStroke) lookup(dashedStrokes, key);
+		if (s == null) {
+			s = new BasicStroke(width, BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL, 0, new float[]{dashLength}, 0);
+			store(dashedStrokes, key, s);
+		}
+		return s;
+	}
+
+	//plain Arial at the given pixel size, rotated anticlockwise by the given angle
+	public static Font font(int size, double radians) {
+		long key = ((long) size << 32) | (Float.floatToIntBits((float) radians) & 0xFFFFFFFFL);
+		Font f = (Font) lookup(fonts, key);
+		if (f == null) {
+			f = new Font("Arial", Font.PLAIN, size);
+			if (radians != 0) {
+				AffineTransform affineTransform = new AffineTransform();
+				affineTransform.rotate(-radians, 0, 0);
+				f = f.deriveFont(affineTransform);
+			}
+			store(fonts, key, f);
+		}
+		return f;
+	}
+
+	//primatives don't set any hints themselves, so this needs doing once before they get drawn. it's always full quality, as
+	//it's what exports and printing use
+	public static void applyHints(Graphics2D g) {
+		RenderQuality.FULL.apply(g);
+	}
+}
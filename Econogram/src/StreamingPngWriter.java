@@ -0,0 +1,166 @@
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+//writes a PNG a strip of rows at a time, so the whole image never has to be in memory at once. the rows are filtered and
+//compressed as they come in, and the compressed data goes out in IDAT chunks whenever enough of it has built up
+public class StreamingPngWriter {
+	static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+	static final int IDAT_SIZE = 64 * 1024;
+	static final double METRES_PER_INCH = 0.0254;
+	static final int FILTER_UP = 2;
+
+	DataOutputStream out;
+	DeflaterOutputStream compressor;
+	Deflater deflater;
+
+	int width;
+	int height;
+	int rowsWritten = 0;
+
+	//the rows as they are in the image, and what they become after filtering (which needs the row above). the row above
+	//the first one counts as all zeros
+	byte[] previousRow;
+	byte[] currentRow;
+	byte[] filteredRow;
+
+	public StreamingPngWriter(OutputStream stream, int width, int height, double dpi) throws IOException {
+		this.width = width;
+		this.height = height;
+		out = new DataOutputStream(stream);
+
+		previousRow = new byte[width * 3];
+		currentRow = new byte[width * 3];
+		filteredRow = new byte[width * 3];
+
+		out.write(SIGNATURE);
+
+		ByteArrayOutputStream header = new ByteArrayOutputStream();
+		DataOutputStream headerData = new DataOutputStream(header);
+		headerData.writeInt(width);
+		headerData.writeInt(height);
+		headerData.writeByte(8);		//bits per sample
+		headerData.writeByte(2);		//RGB
+		headerData.writeByte(0);		//deflate
+		headerData.writeByte(0);		//the standard set of filters
+		headerData.writeByte(0);		//not interlaced
+		writeChunk("IHDR", header.toByteArray(), header.size());
+
+		if (dpi > 0) {
+			ByteArrayOutputStream physical = new ByteArrayOutputStream();
+			DataOutputStream physicalData = new DataOutputStream(physical);
+			int pixelsPerMetre = (int) Math.round(dpi / METRES_PER_INCH);
+			physicalData.writeInt(pixelsPerMetre);
+			physicalData.writeInt(pixelsPerMetre);
+			physicalData.writeByte(1);		//the unit is metres
+			writeChunk("pHYs", physical.toByteArray(), physical.size());
+		}
+
+		deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+		compressor = new DeflaterOutputStream(new IdatOutputStream(), deflater, IDAT_SIZE);
+	}
+
+	void writeChunk(String type, byte[] data, int length) throws IOException {
+		CRC32 crc = new CRC32();
+		byte[] typeBytes = type.getBytes("US-ASCII");
+		crc.update(typeBytes);
+		crc.update(data, 0, length);
+
+		out.writeInt(length);
+		out.write(typeBytes);
+		out.write(data, 0, length);
+		out.writeInt((int) crc.getValue());
+	}
+
+	//collects the compressed data and writes it out in IDAT chunks
+	class IdatOutputStream extends OutputStream {
+		byte[] buffer = new byte[IDAT_SIZE];
+		int used = 0;
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] {(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] data, int offset, int length) throws IOException {
+			while (length > 0) {
+				int count = Math.min(length, buffer.length - used);
+				System.arraycopy(data, offset, buffer, used, count);
+				used += count;
+				offset += count;
+				length -= count;
+
+				if (used == buffer.length) {
+					flush();
+				}
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			if (used > 0) {
+				writeChunk("IDAT", buffer, used);
+				used = 0;
+			}
+		}
+	}
+
+	//the strip has to be the full width of the image, of TYPE_3BYTE_BGR, and come straight after the rows before it
+	public void writeRows(BufferedImage strip) throws IOException {
+		if (strip.getType() != BufferedImage.TYPE_3BYTE_BGR || strip.getWidth() != width) {
+			throw new IllegalArgumentException("Strips must be full width TYPE_3BYTE_BGR images");
+		}
+		if (rowsWritten + strip.getHeight() > height) {
+			throw new IllegalArgumentException("More rows than the image has");
+		}
+
+		int stride = width * 3;
+
+		for (int y = 0; y < strip.getHeight(); ++y) {
+			//the raster hands the pixels back red first, which is the order a PNG wants them in (even though they're stored
+			//the other way round)
+			strip.getRaster().getDataElements(0, y, width, 1, currentRow);
+
+			filterRow();
+			compressor.write(FILTER_UP);
+			compressor.write(filteredRow, 0, stride);
+
+			byte[] swap = previousRow;
+			previousRow = currentRow;
+			currentRow = swap;
+			++rowsWritten;
+		}
+	}
+
+	//every row uses the 'up' filter, which stores each byte as the difference from the one above it. diagrams are mostly
+	//blank space and straight lines, so that leaves almost everything as zeros. it compresses better than picking the best
+	//filter for each row (as most encoders do) and is far quicker
+	void filterRow() {
+		for (int i = 0; i < currentRow.length; ++i) {
+			filteredRow[i] = (byte) (currentRow[i] - previousRow[i]);
+		}
+	}
+
+	public int getRowsWritten() {
+		return rowsWritten;
+	}
+
+	//finishes the image off. doesn't close the stream it was given
+	public void finish() throws IOException {
+		if (rowsWritten != height) {
+			throw new IOException(String.format("Only %d of the %d rows were written", rowsWritten, height));
+		}
+
+		compressor.finish();
+		compressor.flush();
+		deflater.end();
+		writeChunk("IEND", new byte[0], 0);
+		out.flush();
+	}
+}
@@ -26,7 +26,7 @@ public class SupplyDemandLine extends PrimaryLine {
 	
 	public SupplyDemandLine(String fullSerial, int uid, Canvas canvas, DrawObject parent_) {
 		super(fullSerial, uid, canvas, parent_);
-		deserialiseTree(fullSerial);
+		reloadOwnSerialisation(fullSerial);
 	}
 	
 	public SupplyDemandLine(Coordinate coord, double defaultGradient, boolean vertical) {
@@ -65,6 +65,12 @@ public class SupplyDemandLine extends PrimaryLine {
 		return text;
 	}
 
+	//the line goes through our position, from x = -EXTENT to EXTENT (or for vertical lines, roughly y = -EXTENT to EXTENT).
+	//it used to only ever be handled as segments SAMPLE_STEP long, so the clipping below still snaps the ends to where
+	//those segments would have been, which keeps existing diagrams looking exactly the same
+	static final double EXTENT = 999.0;
+	static final double SAMPLE_STEP = 2.0;
+	
 	@Override
 	public List<IntersectableLine> getLineBreakdown() {
 		List<IntersectableLine> l = new ArrayList<IntersectableLine>();
@@ -72,26 +78,171 @@ public class SupplyDemandLine extends PrimaryLine {
 		//we must split this up so selection works properly (the bounding box of a large diagonal line
 		//would be essentially the entire axis)
 				
-		final double increment = 2.0;
+		final double increment = SAMPLE_STEP;
 		if (verticalLine) {
 			//done backwards so the label appears at the top instead of the bottom
-			for (double i = 999.0; i > -999.0; i -= increment) {
+			for (double i = EXTENT; i > -EXTENT; i -= increment) {
 				l.add(new IntersectableLine(new Coordinate(0, i), new Coordinate(0, i + increment)));
 			}
 		} else {
-			for (double i = -999.0; i < 999.0; i += increment) {
+			for (double i = -EXTENT; i < EXTENT; i += increment) {
 				l.add(new IntersectableLine(new Coordinate(i, i * gradient), new Coordinate(i + increment, (i + increment) * gradient)));
 			}
 		}
 		
 		return l;
 	}
+	
+	//the first and last sample points (of the ones that start at origin and go up in SAMPLE_STEPs) that are between low and high
+	static double firstSampleAtOrAfter(double low, double origin) {
+		return origin + SAMPLE_STEP * Math.ceil((low - origin) / SAMPLE_STEP);
+	}
+	
+	static double lastSampleAtOrBefore(double high, double origin) {
+		return origin + SAMPLE_STEP * Math.floor((high - origin) / SAMPLE_STEP);
+	}
+	
+	//the same segments that the generic version keeps, but joined into one and worked out directly
+	@Override
+	public List<IntersectableLine> getClippedLineBreakdown(double minX, double minY, double maxX, double maxY) {
+		List<IntersectableLine> clipped = new ArrayList<IntersectableLine>();
+		
+		if (verticalLine) {
+			if (minX > 0 || maxX < 0) {
+				return clipped;
+			}
+			
+			//the samples go from -EXTENT + SAMPLE_STEP up to EXTENT + SAMPLE_STEP
+			double origin = -EXTENT + SAMPLE_STEP;
+			double top = firstSampleAtOrAfter(Math.max(minY, origin), origin);
+			double bottom = lastSampleAtOrBefore(Math.min(maxY, EXTENT + SAMPLE_STEP), origin);
+			
+			if (bottom - top >= SAMPLE_STEP) {
+				clipped.add(new IntersectableLine(new Coordinate(0, bottom), new Coordinate(0, top)));
+			}
+			return clipped;
+		}
+		
+		//work out which range of x keeps y inside as well
+		double low = Math.max(minX, -EXTENT);
+		double high = Math.min(maxX, EXTENT);
+		
+		if (gradient > 0) {
+			low = Math.max(low, minY / gradient);
+			high = Math.min(high, maxY / gradient);
+		} else if (gradient < 0) {
+			low = Math.max(low, maxY / gradient);
+			high = Math.min(high, minY / gradient);
+		} else if (minY > 0 || maxY < 0) {
+			return clipped;
+		}
+		
+		double left = firstSampleAtOrAfter(low, -EXTENT);
+		double right = lastSampleAtOrBefore(high, -EXTENT);
+		
+		if (right - left >= SAMPLE_STEP) {
+			clipped.add(new IntersectableLine(new Coordinate(left, left * gradient), new Coordinate(right, right * gradient)));
+		}
+		return clipped;
+	}
+	
+	//the generic version goes through the ends of the samples from left to right (for vertical lines, bottom to top),
+	//comparing each one's document position against the line-relative position of the last one it took. that means it
+	//takes the first end that is right of the document's origin, then every end after that which is more than -base.x
+	//further right than the last one taken. the samples are all SAMPLE_STEP apart, so where that ends up can be worked
+	//out from the ends of the clipped segment
+	@Override
+	protected void updateRightmostPoint(List<IntersectableLine> clippedLines, Coordinate base) {
+		rightmostX = 0;
+		
+		if (clippedLines.isEmpty()) {
+			return;
+		}
+		
+		IntersectableLine line = clippedLines.get(0);
+		
+		if (verticalLine) {
+			//every end is at x = 0, so either they all get taken or none of them do. the last one is the top of the
+			//topmost sample
+			if (base.x > 0) {
+				rightmostY = line.p2.y + SAMPLE_STEP;
+			}
+			return;
+		}
+		
+		double left = line.p1.x;
+		double right = line.p2.x;
+		
+		double first = left;
+		if (first + base.x <= 0) {
+			first = left + SAMPLE_STEP * (Math.floor((-base.x - left) / SAMPLE_STEP) + 1);
+		}
+		if (first > right) {
+			return;
+		}
+		
+		double step = base.x > 0 ? SAMPLE_STEP : SAMPLE_STEP * (Math.floor(-base.x / SAMPLE_STEP) + 1);
+		rightmostX = first + step * Math.floor((right - first) / step);
+		rightmostY = rightmostX * gradient;
+	}
+	
+	//the whole line as a single segment (relative to the line's position), going as far as the sampled version does
+	IntersectableLine getFullLine() {
+		return getClippedLineBreakdown(-Double.MAX_VALUE, -Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE).get(0);
+	}
+	
+	//where the two lines cross (in our parent's coordinates), or null if they are parallel or would only meet beyond
+	//where they end
+	@Override
+	public Coordinate intersection(PrimaryLine other) {
+		if (other instanceof KeynesianLRAS) {
+			return other.intersection(this);
+		}
+		if (!(other instanceof SupplyDemandLine)) {
+			return super.intersection(other);
+		}
+		
+		SupplyDemandLine o = (SupplyDemandLine) other;
+		double x1 = relativePosition.x;
+		double y1 = relativePosition.y;
+		double x2 = o.relativePosition.x;
+		double y2 = o.relativePosition.y;
+		
+		Coordinate crossing;
+		if (verticalLine && o.verticalLine) {
+			return null;
+		} else if (verticalLine) {
+			crossing = new Coordinate(x1, y2 + (x1 - x2) * o.gradient);
+		} else if (o.verticalLine) {
+			crossing = new Coordinate(x2, y1 + (x2 - x1) * gradient);
+		} else if (gradient == o.gradient) {
+			return null;
+		} else {
+			double x = (y2 - y1 + gradient * x1 - o.gradient * x2) / (gradient - o.gradient);
+			crossing = new Coordinate(x, y1 + (x - x1) * gradient);
+		}
+		
+		//the lines only go so far, so if they'd only meet further out than that, they don't
+		if (!reaches(crossing.x - x1, crossing.y - y1) || !o.reaches(crossing.x - x2, crossing.y - y2)) {
+			return null;
+		}
+		return crossing;
+	}
+	
+	//whether the point (relative to our position, and assumed to be on the line) is within the part of the line that
+	//exists, which is the same range that getLineBreakdown() covers
+	boolean reaches(double x, double y) {
+		if (verticalLine) {
+			return y >= -EXTENT + SAMPLE_STEP - 1e-9 && y <= EXTENT + SAMPLE_STEP + 1e-9;
+		}
+		return x >= -EXTENT - 1e-9 && x <= EXTENT + 1e-9;
+	}
 
 	@Override
 	public void reloadOnDeserialisation(String data_) {
 		String data = primaryLineDeserialisation(data_);
 
-		verticalLine = data.charAt(0) == 'V';
+		verticalLine = data.charAt(0) == 'Y';
 		
 		String parts[] = data.substring(2).split(",");
 		gradient = Double.parseDouble(parts[0]);
@@ -145,11 +296,16 @@ public class SupplyDemandLine extends PrimaryLine {
 		properties.add(slider);
 		properties.add(new PropertyEntryCheckbox("vertical", "Vertical:", verticalLine));
 
-		update();
-
 		return properties;
 	}
 
+	@Override
+	public void propertyEntryRebound(PropertyEntry entry) {
+		if (entry.id.equals("gradient")) {
+			slider = (PropertyEntrySlider) entry;
+		}
+	}
+
 	@Override
 	public void updateProperty(PropertyEntry property) {
 		slider.disabled = verticalLine;
@@ -0,0 +1,133 @@
+import java.awt.BasicStroke;
+import java.awt.Shape;
+import java.awt.geom.PathIterator;
+import java.io.IOException;
+import java.io.Writer;
+
+//writes the document out as an SVG, one element per primative as they come in, so nothing is kept hold of apart from what
+//the writer is buffering. the view box is in document units and the size is in points, so it comes out the same size on paper
+public class SvgWriter extends VectorWriter {
+	Writer out;
+
+	//one shape's path data gets built here, and the builder is kept for the next one
+	StringBuilder path = new StringBuilder();
+	double[] coords = new double[6];
+
+	public SvgWriter(Writer out) {
+		this.out = out;
+	}
+
+	static String colour(int colour) {
+		return String.format("#%06X", colour & 0xFFFFFF);
+	}
+
+	static String escape(String text) {
+		StringBuilder escaped = new StringBuilder(text.length());
+		for (int i = 0; i < text.length(); ++i) {
+			char c = text.charAt(i);
+			switch (c) {
+				case '&': escaped.append("&amp;"); break;
+				case '<': escaped.append("&lt;"); break;
+				case '>': escaped.append("&gt;"); break;
+				case '"': escaped.append("&quot;"); break;
+				default: escaped.append(c);
+			}
+		}
+		return escaped.toString();
+	}
+
+	@Override
+	public void begin(double width, double height) throws IOException {
+		out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		out.write(String.format("<svg xmlns=\"http://www.w3.org/2000/svg\" version=\"1.1\" width=\"%spt\" height=\"%spt\" viewBox=\"0 0 %s %s\">\n",
+								number(width), number(height), number(width), number(height)));
+		out.write(String.format("<rect width=\"%s\" height=\"%s\" fill=\"#FFFFFF\"/>\n", number(width), number(height)));
+	}
+
+	void writePathData(Shape shape) throws IOException {
+		path.setLength(0);
+
+		for (PathIterator iterator = shape.getPathIterator(null); !iterator.isDone(); iterator.next()) {
+			int points;
+			switch (iterator.currentSegment(coords)) {
+				case PathIterator.SEG_MOVETO: path.append('M'); points = 1; break;
+				case PathIterator.SEG_LINETO: path.append('L'); points = 1; break;
+				case PathIterator.SEG_QUADTO: path.append('Q'); points = 2; break;
+				case PathIterator.SEG_CUBICTO: path.append('C'); points = 3; break;
+				default: path.append('Z'); points = 0; break;
+			}
+
+			for (int i = 0; i < points * 2; ++i) {
+				if (i > 0) {
+					path.append(' ');
+				}
+				path.append(number(coords[i]));
+			}
+		}
+
+		out.write(" d=\"");
+		out.append(path);
+		out.write('"');
+	}
+
+	@Override
+	public void fill(Shape shape, int colour) throws IOException {
+		out.write("<path");
+		writePathData(shape);
+		out.write(String.format(" fill=\"%s\"/>\n", colour(colour)));
+	}
+
+	@Override
+	public void stroke(Shape shape, int colour, BasicStroke stroke) throws IOException {
+		out.write("<path");
+		writePathData(shape);
+		out.write(String.format(" fill=\"none\" stroke=\"%s\" stroke-width=\"%s\"", colour(colour), number(stroke.getLineWidth())));
+
+		switch (stroke.getEndCap()) {
+			case BasicStroke.CAP_BUTT: break;		//the default
+			case BasicStroke.CAP_ROUND: out.write(" stroke-linecap=\"round\""); break;
+			default: out.write(" stroke-linecap=\"square\""); break;
+		}
+
+		switch (stroke.getLineJoin()) {
+			case BasicStroke.JOIN_MITER: out.write(String.format(" stroke-miterlimit=\"%s\"", number(stroke.getMiterLimit()))); break;
+			case BasicStroke.JOIN_ROUND: out.write(" stroke-linejoin=\"round\""); break;
+			default: out.write(" stroke-linejoin=\"bevel\""); break;
+		}
+
+		float[] dashes = stroke.getDashArray();
+		if (dashes != null) {
+			out.write(" stroke-dasharray=\"");
+			for (int i = 0; i < dashes.length; ++i) {
+				out.write((i > 0 ? " " : "") + number(dashes[i]));
+			}
+			out.write('"');
+			if (stroke.getDashPhase() != 0) {
+				out.write(String.format(" stroke-dashoffset=\"%s\"", number(stroke.getDashPhase())));
+			}
+		}
+
+		out.write("/>\n");
+	}
+
+	@Override
+	public void text(String text, double x, double y, double size, double radians, int colour) throws IOException {
+		out.write(String.format("<text x=\"%s\" y=\"%s\" font-family=\"Arial\" font-size=\"%s\" fill=\"%s\" xml:space=\"preserve\"",
+								number(x), number(y), number(size), colour(colour)));
+
+		//an SVG rotation goes clockwise on screen, the opposite way to ours
+		if (radians != 0) {
+			out.write(String.format(" transform=\"rotate(%s %s %s)\"", number(-Math.toDegrees(radians)), number(x), number(y)));
+		}
+
+		out.write('>');
+		out.write(escape(text));
+		out.write("</text>\n");
+	}
+
+	@Override
+	public void finish() throws IOException {
+		out.write("</svg>\n");
+		out.flush();
+	}
+}
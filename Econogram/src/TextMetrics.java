@@ -0,0 +1,58 @@
+import java.awt.font.FontRenderContext;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+//measures text without needing a Graphics (or even a screen), and remembers the answers as labels get measured over and over.
+//the FontRenderContext matches what a plain Graphics2D uses (no antialiasing, whole pixel advances), so the widths come out
+//the same as FontMetrics.stringWidth() would give
+public class TextMetrics {
+	static final FontRenderContext FONT_RENDER_CONTEXT = new FontRenderContext(null, false, false);
+
+	//once a size has this many strings cached it starts again, which stops it growing forever while someone types
+	static final int MAX_STRINGS_PER_SIZE = 2048;
+
+	static final Map<Integer, Map<String, Integer>> widths = new ConcurrentHashMap<Integer, Map<String, Integer>>();
+
+	//width in pixels of the text in (upright) Arial at the given pixel size
+	public static int stringWidth(int size, String text) {
+		Map<String, Integer> widthsAtSize = widths.get(size);
+		if (widthsAtSize == null) {
+			widths.putIfAbsent(size, new ConcurrentHashMap<String, Integer>());
+			widthsAtSize = widths.get(size);
+		}
+
+		Integer width = widthsAtSize.get(text);
+		if (width == null) {
+			if (widthsAtSize.size() >= MAX_STRINGS_PER_SIZE) {
+				widthsAtSize.clear();
+			}
+			width = (int) Math.round(RenderStateCache.font(size, 0).getStringBounds(text, FONT_RENDER_CONTEXT).getWidth());
+			widthsAtSize.put(text, width);
+		}
+		return width;
+	}
+
+	//the same, but measured with a different FontRenderContext. those measurements aren't remembered, as they're only used for
+	//things like printing (where the text gets laid out for the printer rather than the screen)
+	public static int stringWidth(FontRenderContext fontRenderContext, int size, String text) {
+		if (fontRenderContext == FONT_RENDER_CONTEXT) {
+			return stringWidth(size, text);
+		}
+		return (int) Math.round(RenderStateCache.font(size, 0).getStringBounds(text, fontRenderContext).getWidth());
+	}
+
+	//how far across the page the text goes when rotated anticlockwise by the given angle (e.g. nothing at all for vertical text)
+	public static int horizontalAdvance(int size, double radians, String text) {
+		if (radians == 0) {
+			return stringWidth(size, text);
+		}
+		return (int) Math.round(stringWidth(size, text) * Math.cos(radians));
+	}
+
+	public static int horizontalAdvance(FontRenderContext fontRenderContext, int size, double radians, String text) {
+		if (radians == 0) {
+			return stringWidth(fontRenderContext, size, text);
+		}
+		return (int) Math.round(stringWidth(fontRenderContext, size, text) * Math.cos(radians));
+	}
+}
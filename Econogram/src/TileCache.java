@@ -0,0 +1,91 @@
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//rendered tiles of the diagram, so repainting something that hasn't changed is just a few image copies.
+//tiles are TILE_SIZE pixels square in zoomed (but not panned) space, so panning reuses them and zooming doesn't.
+public class TileCache {
+	static final int TILE_SIZE = 256;
+	static final long BYTES_PER_TILE = TILE_SIZE * TILE_SIZE * 4;
+
+	class Key {
+		double zoom;
+		int x;
+		int y;
+
+		Key(double zoom, int x, int y) {
+			this.zoom = zoom;
+			this.x = x;
+			this.y = y;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key k = (Key) o;
+			return k.zoom == zoom && k.x == x && k.y == y;
+		}
+
+		@Override
+		public int hashCode() {
+			return (Double.hashCode(zoom) * 31 + x) * 31 + y;
+		}
+	}
+
+	long maxBytes;
+
+	//access ordered, so the eldest entry is always the least recently used one
+	LinkedHashMap<Key, BufferedImage> tiles = new LinkedHashMap<Key, BufferedImage>(64, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, BufferedImage> eldest) {
+			return size() * BYTES_PER_TILE > maxBytes;
+		}
+	};
+
+	public TileCache(long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	public void setMemoryLimit(long bytes) {
+		maxBytes = bytes;
+
+		Iterator<Key> it = tiles.keySet().iterator();
+		while (tiles.size() * BYTES_PER_TILE > maxBytes && it.hasNext()) {
+			it.next();
+			it.remove();
+		}
+	}
+
+	public BufferedImage get(double zoom, int x, int y) {
+		return tiles.get(new Key(zoom, x, y));
+	}
+
+	public void put(double zoom, int x, int y, BufferedImage tile) {
+		tiles.put(new Key(zoom, x, y), tile);
+	}
+
+	//throws away every tile (at any zoom level) that shows part of the given area of the document
+	public void invalidate(Rectangle2D region) {
+		Iterator<Key> it = tiles.keySet().iterator();
+		while (it.hasNext()) {
+			Key k = it.next();
+			double left = k.x * TILE_SIZE / k.zoom;
+			double top = k.y * TILE_SIZE / k.zoom;
+			double size = TILE_SIZE / k.zoom;
+
+			if (left <= region.getMaxX() && region.getMinX() <= left + size && top <= region.getMaxY() && region.getMinY() <= top + size) {
+				it.remove();
+			}
+		}
+	}
+
+	public void clear() {
+		tiles.clear();
+	}
+}
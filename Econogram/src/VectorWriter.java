@@ -0,0 +1,34 @@
+import java.awt.BasicStroke;
+import java.awt.Shape;
+import java.io.IOException;
+import java.util.Locale;
+
+//something that saves the document as shapes and text rather than pixels. everything is in document units (points), and the
+//primatives hand over the same shapes and strokes they draw with, just without the zoom and pan
+public abstract class VectorWriter {
+	//numbers for the file: short, and always with a '.' whatever the locale is
+	static String number(double value) {
+		String text = String.format(Locale.ROOT, "%.3f", value);
+		int end = text.length();
+		while (text.charAt(end - 1) == '0') {
+			--end;
+		}
+		if (text.charAt(end - 1) == '.') {
+			--end;
+		}
+		text = text.substring(0, end);
+		return text.equals("-0") ? "0" : text;
+	}
+
+	//the size of the page, before anything goes on it
+	abstract public void begin(double width, double height) throws IOException;
+
+	abstract public void fill(Shape shape, int colour) throws IOException;
+	abstract public void stroke(Shape shape, int colour, BasicStroke stroke) throws IOException;
+
+	//plain Arial with its baseline starting at x, y, rotated anticlockwise by the given angle (the same as RenderStateCache.font)
+	abstract public void text(String text, double x, double y, double size, double radians, int colour) throws IOException;
+
+	//finishes the page off. doesn't close the stream it was given
+	abstract public void finish() throws IOException;
+}